@@ -0,0 +1,11 @@
+package ru.practicum.load;
+
+import java.util.List;
+
+// Идентификаторы сущностей в порядке их индексов при генерации: нагрузка ссылается на сущности по индексу,
+// поэтому при параллельном наполнении сценарий не зависит от того, какие id выдала база.
+public record Dataset(List<Long> userIds,
+                      List<Long> categoryIds,
+                      List<Long> eventIds,
+                      List<Long> compilationIds) {
+}
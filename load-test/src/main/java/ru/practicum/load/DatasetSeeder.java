@@ -0,0 +1,227 @@
+package ru.practicum.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.HitDto;
+
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+// Наполняет сервисы через их публичный API, как это делали бы пользователи. Содержимое каждой сущности
+// зависит только от random-seed и её индекса, поэтому при одинаковых настройках получается тот же набор данных.
+// База должна быть пустой: повторное наполнение упрётся в уникальность email и названий категорий.
+@Component
+@Slf4j
+public class DatasetSeeder {
+
+    static final String[] WORDS = {"концерт", "выставка", "лекция", "фестиваль", "спектакль",
+            "мастер-класс", "экскурсия", "турнир", "кинопоказ", "вечеринка"};
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int COMPILATION_SIZE = 10;
+
+    private final HttpDriver http;
+    private final String mainUrl;
+    private final String statsUrl;
+    private final String mainApp;
+    private final long randomSeed;
+    private final int concurrency;
+    private final int users;
+    private final int categories;
+    private final int events;
+    private final int requests;
+    private final int compilations;
+    private final long hits;
+    private final int hitsBatchSize;
+    private final int hitsDays;
+
+    public DatasetSeeder(HttpDriver http,
+                         @Value("${load.main-url}") String mainUrl,
+                         @Value("${load.stats-url}") String statsUrl,
+                         @Value("${load.main-app:main-service}") String mainApp,
+                         @Value("${load.random-seed:42}") long randomSeed,
+                         @Value("${load.seed.concurrency:32}") int concurrency,
+                         @Value("${load.seed.users:200}") int users,
+                         @Value("${load.seed.categories:20}") int categories,
+                         @Value("${load.seed.events:10000}") int events,
+                         @Value("${load.seed.requests:20000}") int requests,
+                         @Value("${load.seed.compilations:50}") int compilations,
+                         @Value("${load.seed.hits:1000000}") long hits,
+                         @Value("${load.seed.hits-batch-size:1000}") int hitsBatchSize,
+                         @Value("${load.seed.hits-days:30}") int hitsDays) {
+        this.http = http;
+        this.mainUrl = mainUrl;
+        this.statsUrl = statsUrl;
+        this.mainApp = mainApp;
+        this.randomSeed = randomSeed;
+        this.concurrency = concurrency;
+        this.users = users;
+        this.categories = categories;
+        this.events = events;
+        this.requests = requests;
+        this.compilations = compilations;
+        this.hits = hits;
+        this.hitsBatchSize = hitsBatchSize;
+        this.hitsDays = hitsDays;
+    }
+
+    public Dataset seed() {
+        if (users < 2 || categories < 1 || events < 1) {
+            throw new IllegalArgumentException("Для наполнения нужны минимум 2 пользователя, 1 категория и 1 событие");
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Long> userIds = parallel("пользователи", users, this::createUser);
+        List<Long> categoryIds = parallel("категории", categories, this::createCategory);
+        List<Long> eventIds = parallel("события", events, i -> createEvent(i, now, userIds, categoryIds));
+        int requestCount = (int) Math.min(requests, (long) events * (users - 1));
+        List<Long> requestIds = parallel("заявки", requestCount, i -> createRequest(i, userIds, eventIds));
+        List<Long> compilationIds = parallel("подборки", compilations, i -> createCompilation(i, eventIds));
+        log.info("Отклонено заявок (лимит участников): {}", requestIds.stream().filter(id -> id == 0).count());
+
+        int batches = (int) ((hits + hitsBatchSize - 1) / hitsBatchSize);
+        parallel("пакеты просмотров", batches, i -> sendHits(i, now, eventIds));
+
+        return new Dataset(userIds, categoryIds, eventIds, compilationIds);
+    }
+
+    private long createUser(int index) {
+        return http.sendForId(http.post(mainUrl + "/admin/users", Map.of(
+                "name", "Пользователь " + index,
+                "email", "load-user-" + index + "@example.com")));
+    }
+
+    private long createCategory(int index) {
+        return http.sendForId(http.post(mainUrl + "/admin/categories", Map.of(
+                "name", "Категория " + index)));
+    }
+
+    // Инициатор события - пользователь с индексом index % users, на этом строится подбор участников в заявках.
+    private long createEvent(int index, LocalDateTime now, List<Long> userIds, List<Long> categoryIds) {
+        Random random = random(1, index);
+        String word = WORDS[random.nextInt(WORDS.length)];
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("annotation", "%s: анонс события номер %d".formatted(word, index));
+        event.put("description", "%s, %s и %s. Подробное описание события номер %d"
+                .formatted(word, WORDS[random.nextInt(WORDS.length)], WORDS[random.nextInt(WORDS.length)], index));
+        event.put("category", categoryIds.get(random.nextInt(categoryIds.size())));
+        event.put("eventDate", FORMATTER.format(now.plusDays(1 + random.nextInt(180)).withNano(0)));
+        event.put("location", Map.of("lat", 55 + random.nextFloat(), "lon", 37 + random.nextFloat()));
+        event.put("paid", random.nextBoolean());
+        event.put("participantLimit", random.nextInt(4) == 0 ? 0 : 5 + random.nextInt(100));
+        event.put("requestModeration", false);
+        event.put("title", "%s #%d".formatted(word, index));
+
+        long userId = userIds.get(index % userIds.size());
+        long eventId = http.sendForId(http.post(mainUrl + "/users/" + userId + "/events", event));
+        http.sendForId(http.patch(mainUrl + "/admin/events/" + eventId, Map.of("stateAction", "PUBLISH_EVENT")));
+        return eventId;
+    }
+
+    // Пары (участник, событие) не повторяются, а участник никогда не совпадает с инициатором.
+    private long createRequest(int index, List<Long> userIds, List<Long> eventIds) {
+        int eventIndex = index % eventIds.size();
+        int userIndex = (eventIndex % userIds.size() + 1 + index / eventIds.size()) % userIds.size();
+        HttpResponse<String> response = http.send(http.post(mainUrl + "/users/" + userIds.get(userIndex)
+                + "/requests?eventId=" + eventIds.get(eventIndex), Map.of()));
+        if (response.statusCode() == 409) {
+            return 0;
+        }
+        if (!http.isSuccess(response.statusCode())) {
+            throw new IllegalStateException("Заявка %d завершилась со статусом %d: %s"
+                    .formatted(index, response.statusCode(), response.body()));
+        }
+        return index + 1;
+    }
+
+    private long createCompilation(int index, List<Long> eventIds) {
+        Random random = random(2, index);
+        List<Long> compilationEvents = random.ints(0, eventIds.size())
+                .distinct()
+                .limit(Math.min(COMPILATION_SIZE, eventIds.size()))
+                .mapToObj(eventIds::get)
+                .toList();
+        return http.sendForId(http.post(mainUrl + "/admin/compilations", Map.of(
+                "events", compilationEvents,
+                "pinned", index % 5 == 0,
+                "title", "Подборка " + index)));
+    }
+
+    // Популярность событий неравномерна: куб равномерной величины смещает просмотры к первым событиям.
+    private long sendHits(int batch, LocalDateTime now, List<Long> eventIds) {
+        Random random = random(3, batch);
+        long size = Math.min(hitsBatchSize, hits - (long) batch * hitsBatchSize);
+        List<HitDto> hitDtos = new ArrayList<>((int) size);
+        for (int i = 0; i < size; i++) {
+            int eventIndex = (int) (eventIds.size() * Math.pow(random.nextDouble(), 3));
+            hitDtos.add(HitDto.builder()
+                    .app(mainApp)
+                    .uri("/events/" + eventIds.get(eventIndex))
+                    .ip("10.%d.%d.%d".formatted(random.nextInt(16), random.nextInt(256), random.nextInt(256)))
+                    .timestamp(now.minusSeconds(random.nextInt(hitsDays * 86_400)).withNano(0))
+                    .build());
+        }
+        HttpResponse<String> response = http.send(http.post(statsUrl + "/hits", hitDtos));
+        if (!http.isSuccess(response.statusCode())) {
+            throw new IllegalStateException("Пакет просмотров %d завершился со статусом %d: %s"
+                    .formatted(batch, response.statusCode(), response.body()));
+        }
+        return size;
+    }
+
+    private List<Long> parallel(String name, int count, IntFunction<Long> task) {
+        log.info("Создание: {}, {} шт.", name, count);
+        long started = System.nanoTime();
+        AtomicLong done = new AtomicLong();
+        Semaphore permits = new Semaphore(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                permits.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        Long result = task.apply(index);
+                        long completed = done.incrementAndGet();
+                        if (completed % 10_000 == 0) {
+                            log.info("{}: {} из {}", name, completed, count);
+                        }
+                        return result;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<Long> results = new ArrayList<>(count);
+            for (Future<Long> future : futures) {
+                results.add(future.get());
+            }
+            log.info("{}: {} шт. за {} с", name, count, (System.nanoTime() - started) / 1_000_000_000);
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Наполнение прервано", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Не удалось создать " + name + ": " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+    }
+
+    private Random random(int stream, int index) {
+        return new Random(randomSeed * 1_000_003 + stream * 0x9E3779B97F4A7C15L + index);
+    }
+}
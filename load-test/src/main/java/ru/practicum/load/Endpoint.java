@@ -0,0 +1,16 @@
+package ru.practicum.load;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum Endpoint {
+    EVENTS("GET /events"),
+    EVENT("GET /events/{id}"),
+    COMPILATIONS("GET /compilations"),
+    HIT("POST /hit"),
+    STATS("GET /stats");
+
+    private final String title;
+}
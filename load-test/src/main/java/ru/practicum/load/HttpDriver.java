@@ -0,0 +1,97 @@
+package ru.practicum.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+@Component
+public class HttpDriver {
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+
+    public HttpDriver(ObjectMapper objectMapper, @Value("${load.http.timeout:10s}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(timeout)
+                .GET()
+                .build();
+    }
+
+    public HttpRequest post(String uri, Object body) {
+        return withBody(uri, "POST", body);
+    }
+
+    public HttpRequest patch(String uri, Object body) {
+        return withBody(uri, "PATCH", body);
+    }
+
+    public HttpResponse<String> send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new IllegalStateException("Запрос %s %s не выполнен: %s"
+                    .formatted(request.method(), request.uri(), e.getMessage()), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Запрос %s %s прерван".formatted(request.method(), request.uri()), e);
+        }
+    }
+
+    public long sendForId(HttpRequest request) {
+        HttpResponse<String> response = send(request);
+        if (!isSuccess(response.statusCode())) {
+            throw new IllegalStateException("Запрос %s %s завершился со статусом %d: %s"
+                    .formatted(request.method(), request.uri(), response.statusCode(), response.body()));
+        }
+        try {
+            JsonNode id = objectMapper.readTree(response.body()).get("id");
+            return id == null ? 0 : id.asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Некорректный ответ на " + request.uri() + ": " + response.body(), e);
+        }
+    }
+
+    // Тело ответа не разбирается: при замере нагрузки важны только статус и время.
+    public CompletableFuture<Integer> sendAsync(HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    public boolean isSuccess(int status) {
+        return status >= 200 && status < 300;
+    }
+
+    private HttpRequest withBody(String uri, String method, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(uri))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Не удалось сериализовать тело запроса " + uri, e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package ru.practicum.load;
+
+public enum LoadMode {
+    SEED, REPLAY, ALL
+}
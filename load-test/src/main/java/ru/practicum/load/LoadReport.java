@@ -0,0 +1,24 @@
+package ru.practicum.load;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record LoadReport(LocalDateTime startedAt,
+                         long randomSeed,
+                         int targetRps,
+                         long durationSeconds,
+                         List<EndpointReport> endpoints) {
+
+    // Время ответа в миллисекундах, отсчитывается от запланированного момента отправки.
+    public record EndpointReport(Endpoint endpoint,
+                                 long requests,
+                                 long errors,
+                                 long dropped,
+                                 double throughput,
+                                 double p50,
+                                 double p90,
+                                 double p99,
+                                 double p999,
+                                 double max) {
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class LoadReporter {
+
+    // Доля ошибок может вырасти не больше чем на процентный пункт, чтобы единичные таймауты не валили сравнение.
+    private static final double MAX_ERROR_SHARE_INCREASE = 0.01;
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final String baseline;
+    private final double maxRegression;
+
+    public LoadReporter(ObjectMapper objectMapper,
+                        @Value("${load.report.file:target/load-report.json}") String file,
+                        @Value("${load.report.baseline:}") String baseline,
+                        @Value("${load.report.max-regression:0.2}") double maxRegression) {
+        this.objectMapper = objectMapper.copy()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.file = Path.of(file);
+        this.baseline = baseline;
+        this.maxRegression = maxRegression;
+    }
+
+    public void write(LoadReport report) {
+        log.info(String.format("%-20s %9s %7s %7s %9s %9s %9s %9s %9s",
+                "endpoint", "requests", "errors", "dropped", "rps", "p50, мс", "p99, мс", "p999, мс", "max, мс"));
+        report.endpoints().forEach(endpoint -> log.info(String.format(
+                "%-20s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f",
+                endpoint.endpoint().getTitle(), endpoint.requests(), endpoint.errors(), endpoint.dropped(),
+                endpoint.throughput(), endpoint.p50(), endpoint.p99(), endpoint.p999(), endpoint.max())));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            objectMapper.writeValue(file.toFile(), report);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить отчёт в " + file, e);
+        }
+        log.info("Отчёт сохранён в {}", file.toAbsolutePath());
+    }
+
+    // Пустой список - регрессий нет или сравнивать не с чем.
+    public List<String> compareWithBaseline(LoadReport report) {
+        if (baseline == null || baseline.isBlank()) {
+            return List.of();
+        }
+        LoadReport previous;
+        try {
+            previous = objectMapper.readValue(Path.of(baseline).toFile(), LoadReport.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать базовый отчёт " + baseline, e);
+        }
+        Map<Endpoint, LoadReport.EndpointReport> previousEndpoints = previous.endpoints().stream()
+                .collect(Collectors.toMap(LoadReport.EndpointReport::endpoint, Function.identity()));
+
+        List<String> violations = new ArrayList<>();
+        for (LoadReport.EndpointReport current : report.endpoints()) {
+            LoadReport.EndpointReport before = previousEndpoints.get(current.endpoint());
+            if (before == null) {
+                continue;
+            }
+            if (current.p99() > before.p99() * (1 + maxRegression)) {
+                violations.add("%s: p99 %.2f мс против %.2f мс".formatted(current.endpoint().getTitle(),
+                        current.p99(), before.p99()));
+            }
+            if (errorShare(current) > errorShare(before) + MAX_ERROR_SHARE_INCREASE) {
+                violations.add("%s: доля ошибок %.2f%% против %.2f%%".formatted(current.endpoint().getTitle(),
+                        errorShare(current) * 100, errorShare(before) * 100));
+            }
+        }
+        return violations;
+    }
+
+    private double errorShare(LoadReport.EndpointReport report) {
+        long total = report.requests() + report.dropped();
+        return total == 0 ? 0 : (double) (report.errors() + report.dropped()) / total;
+    }
+}
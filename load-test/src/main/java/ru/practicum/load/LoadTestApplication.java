@@ -0,0 +1,11 @@
+package ru.practicum.load;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class LoadTestApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(LoadTestApplication.class, args);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Код выхода 1 означает регрессию относительно load.report.baseline, поэтому прогон можно ставить в CI как проверку.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoadTestRunner implements ApplicationRunner {
+
+    private final DatasetSeeder datasetSeeder;
+    private final WorkloadReplayer workloadReplayer;
+    private final LoadReporter loadReporter;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${load.mode:ALL}")
+    private LoadMode mode;
+
+    @Value("${load.dataset-file:target/load-dataset.json}")
+    private Path datasetFile;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Dataset dataset;
+        if (mode == LoadMode.REPLAY) {
+            dataset = objectMapper.readValue(datasetFile.toFile(), Dataset.class);
+            log.info("Набор данных загружен из {}", datasetFile.toAbsolutePath());
+        } else {
+            dataset = datasetSeeder.seed();
+            Files.createDirectories(datasetFile.toAbsolutePath().getParent());
+            objectMapper.writeValue(datasetFile.toFile(), dataset);
+            log.info("Набор данных сохранён в {}", datasetFile.toAbsolutePath());
+        }
+
+        int exitCode = 0;
+        if (mode != LoadMode.SEED) {
+            LoadReport report = workloadReplayer.replay(dataset);
+            loadReporter.write(report);
+            List<String> violations = loadReporter.compareWithBaseline(report);
+            violations.forEach(violation -> log.error("Регрессия: {}", violation));
+            exitCode = violations.isEmpty() ? 0 : 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.load;
+
+import ru.practicum.dto.HitDto;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+// Последовательность запросов зависит только от набора данных, random-seed и долей в mix:
+// два прогона с одинаковыми настройками отправляют одни и те же запросы в одном порядке.
+public class WorkloadPlan {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final HttpDriver http;
+    private final Dataset dataset;
+    private final String mainUrl;
+    private final String statsUrl;
+    private final String mainApp;
+    private final Random random;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+    private final String statsStart;
+    private final String statsEnd;
+
+    public WorkloadPlan(HttpDriver http, Dataset dataset, String mainUrl, String statsUrl, String mainApp,
+                        long randomSeed, Map<Endpoint, Integer> mix) {
+        this.http = http;
+        this.dataset = dataset;
+        this.mainUrl = mainUrl;
+        this.statsUrl = statsUrl;
+        this.mainApp = mainApp;
+        this.random = new Random(randomSeed);
+        this.endpoints = mix.keySet().toArray(Endpoint[]::new);
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += mix.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        this.statsStart = encode(FORMATTER.format(now.minusDays(7)));
+        this.statsEnd = encode(FORMATTER.format(now.plusHours(1)));
+    }
+
+    public static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> result = new EnumMap<>(Endpoint.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Некорректная доля в load.replay.mix: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Доля не может быть отрицательной: " + part);
+            }
+            if (weight > 0) {
+                result.put(Endpoint.valueOf(pair[0].trim()), weight);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("В load.replay.mix нет ни одного эндпоинта");
+        }
+        return result;
+    }
+
+    public Call next() {
+        int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (cumulativeWeights[index] <= point) {
+            index++;
+        }
+        Endpoint endpoint = endpoints[index];
+        return new Call(endpoint, switch (endpoint) {
+            case EVENTS -> http.get(mainUrl + "/events?" + eventsQuery());
+            case EVENT -> http.get(mainUrl + "/events/" + popularEvent());
+            case COMPILATIONS -> http.get(mainUrl + "/compilations?pinned=" + random.nextBoolean()
+                    + "&from=" + 10 * random.nextInt(3) + "&size=10");
+            case HIT -> http.post(statsUrl + "/hit", HitDto.builder()
+                    .app(mainApp)
+                    .uri("/events/" + popularEvent())
+                    .ip("10.%d.%d.%d".formatted(random.nextInt(16), random.nextInt(256), random.nextInt(256)))
+                    .timestamp(LocalDateTime.now().withNano(0))
+                    .build());
+            case STATS -> http.get(statsUrl + "/stats?start=" + statsStart + "&end=" + statsEnd
+                    + "&uris=" + random.ints(1 + random.nextInt(5), 0, dataset.eventIds().size())
+                    .mapToObj(i -> "/events/" + dataset.eventIds().get(i))
+                    .collect(Collectors.joining(","))
+                    + "&unique=" + random.nextBoolean());
+        });
+    }
+
+    private String eventsQuery() {
+        String filter = switch (random.nextInt(5)) {
+            case 0 -> "sort=EVENT_DATE";
+            case 1 -> "categories=" + random.ints(1 + random.nextInt(3), 0, dataset.categoryIds().size())
+                    .mapToObj(i -> String.valueOf(dataset.categoryIds().get(i)))
+                    .collect(Collectors.joining(","));
+            case 2 -> "text=" + encode(DatasetSeeder.WORDS[random.nextInt(DatasetSeeder.WORDS.length)]);
+            case 3 -> "paid=" + random.nextBoolean() + "&onlyAvailable=true";
+            default -> "sort=VIEWS";
+        };
+        return filter + "&from=" + 10 * random.nextInt(5) + "&size=10";
+    }
+
+    // То же смещение популярности, что и у просмотров при наполнении.
+    private long popularEvent() {
+        List<Long> eventIds = dataset.eventIds();
+        return eventIds.get((int) (eventIds.size() * Math.pow(random.nextDouble(), 3)));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    public record Call(Endpoint endpoint, HttpRequest request) {
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Открытая модель нагрузки: запросы уходят по расписанию с частотой rps независимо от того, успели ли ответить
+// предыдущие. Задержка считается от запланированного момента, поэтому очередь перед медленным сервисом
+// попадает в перцентили, а не прячется за замедлившимся генератором.
+@Component
+@Slf4j
+public class WorkloadReplayer {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final HttpDriver http;
+    private final String mainUrl;
+    private final String statsUrl;
+    private final String mainApp;
+    private final long randomSeed;
+    private final int rps;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int maxInFlight;
+    private final Map<Endpoint, Integer> mix;
+
+    public WorkloadReplayer(HttpDriver http,
+                            @Value("${load.main-url}") String mainUrl,
+                            @Value("${load.stats-url}") String statsUrl,
+                            @Value("${load.main-app:main-service}") String mainApp,
+                            @Value("${load.random-seed:42}") long randomSeed,
+                            @Value("${load.replay.rps:200}") int rps,
+                            @Value("${load.replay.warmup:10s}") Duration warmup,
+                            @Value("${load.replay.duration:60s}") Duration duration,
+                            @Value("${load.replay.max-in-flight:2000}") int maxInFlight,
+                            @Value("${load.replay.mix}") String mix) {
+        this.http = http;
+        this.mainUrl = mainUrl;
+        this.statsUrl = statsUrl;
+        this.mainApp = mainApp;
+        this.randomSeed = randomSeed;
+        this.rps = rps;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.maxInFlight = maxInFlight;
+        this.mix = WorkloadPlan.parseMix(mix);
+        if (rps <= 0 || duration.toSeconds() <= 0) {
+            throw new IllegalArgumentException("load.replay.rps и load.replay.duration должны быть положительными");
+        }
+    }
+
+    public LoadReport replay(Dataset dataset) {
+        WorkloadPlan plan = new WorkloadPlan(http, dataset, mainUrl, statsUrl, mainApp, randomSeed, mix);
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        mix.keySet().forEach(endpoint -> stats.put(endpoint, new EndpointStats()));
+
+        long warmupCalls = rps * warmup.toSeconds();
+        long totalCalls = warmupCalls + rps * duration.toSeconds();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        LocalDateTime startedAt = LocalDateTime.now();
+        log.info("Нагрузка {} запросов/с: прогрев {} с, замер {} с", rps, warmup.toSeconds(), duration.toSeconds());
+
+        long started = System.nanoTime();
+        for (long i = 0; i < totalCalls; i++) {
+            WorkloadPlan.Call call = plan.next();
+            long intended = started + i * 1_000_000_000L / rps;
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            boolean measured = i >= warmupCalls;
+            EndpointStats endpointStats = stats.get(call.endpoint());
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    endpointStats.dropped.increment();
+                }
+                continue;
+            }
+            http.sendAsync(call.request()).whenComplete((status, error) -> {
+                inFlight.release();
+                if (measured) {
+                    endpointStats.record(System.nanoTime() - intended, error == null && http.isSuccess(status));
+                }
+            });
+        }
+        awaitInFlight(inFlight);
+
+        List<LoadReport.EndpointReport> endpoints = new ArrayList<>();
+        stats.forEach((endpoint, endpointStats) -> endpoints.add(endpointStats.toReport(endpoint, duration)));
+        return new LoadReport(startedAt, randomSeed, rps, duration.toSeconds(), endpoints);
+    }
+
+    private void awaitInFlight(Semaphore inFlight) {
+        try {
+            if (!inFlight.tryAcquire(maxInFlight, 1, TimeUnit.MINUTES)) {
+                log.warn("Часть запросов не завершилась за минуту после окончания нагрузки");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class EndpointStats {
+
+        private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        void record(long latencyNanos, boolean success) {
+            latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+            if (!success) {
+                errors.increment();
+            }
+        }
+
+        LoadReport.EndpointReport toReport(Endpoint endpoint, Duration duration) {
+            long requests = latencies.getTotalCount();
+            return new LoadReport.EndpointReport(endpoint, requests, errors.sum(), dropped.sum(),
+                    (double) requests / duration.toSeconds(),
+                    percentile(50), percentile(90), percentile(99), percentile(99.9),
+                    latencies.getMaxValue() / 1000.0);
+        }
+
+        private double percentile(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
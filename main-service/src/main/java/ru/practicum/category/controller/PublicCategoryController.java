@@ -3,6 +3,7 @@ package ru.practicum.category.controller;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.category.dto.CategoryDto;
 import ru.practicum.category.service.CategoryService;
@@ -17,9 +18,10 @@ public class PublicCategoryController {
     private final CategoryService categoryService;
 
     @GetMapping
-    public List<CategoryDto> getCategories(@PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                    @Positive @RequestParam(defaultValue = "10") int size) {
-        return categoryService.getCategories(from, size);
+    public ResponseEntity<List<CategoryDto>> getCategories(@PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                           @Positive @RequestParam(defaultValue = "10") int size,
+                                                           @RequestParam(required = false) String cursor) {
+        return categoryService.getCategories(from, size, cursor).toResponse();
     }
 
     @GetMapping("/{catId}")
@@ -3,8 +3,6 @@ package ru.practicum.category.service;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.category.dto.CategoryDto;
@@ -15,8 +13,9 @@ import ru.practicum.category.repository.CategoryRepository;
 import ru.practicum.event.repository.EventRepository;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
-
-import java.util.List;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.pagination.PageOrder;
+import ru.practicum.pagination.Pagination;
 
 @Service
 @RequiredArgsConstructor
@@ -24,15 +23,15 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class CategoryServiceImpl implements CategoryService {
 
+    private static final PageOrder<Category> BY_ID = PageOrder.byId(Category::getId);
+
     final CategoryRepository categoryRepository;
     final EventRepository eventRepository;
 
     @Override
-    public List<CategoryDto> getCategories(int from, int size) {
-        int page = from / size;
-        return categoryRepository.findAll(PageRequest.of(page, size, Sort.by("id")))
-                .map(CategoryMapper::toCategoryDto)
-                .toList();
+    public CursorPage<CategoryDto> getCategories(int from, int size, String cursor) {
+        return Pagination.find(categoryRepository, null, BY_ID, from, size, cursor)
+                .map(CategoryMapper::toCategoryDto);
     }
 
     @Override
@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.comment.dto.CommentDto;
 import ru.practicum.comment.dto.UpdateCommentStatusRequest;
@@ -21,11 +22,12 @@ public class AdminCommentController {
     final CommentService commentService;
 
     @GetMapping
-    public List<CommentDto> getAdminComments(@RequestParam(required = false) Long eventId,
-                                        @RequestParam(required = false) CommentStatus status,
-                                        @RequestParam(defaultValue = "0") int from,
-                                        @RequestParam(defaultValue = "10") int size) {
-        return commentService.getAdminComments(eventId, status, from, size);
+    public ResponseEntity<List<CommentDto>> getAdminComments(@RequestParam(required = false) Long eventId,
+                                                             @RequestParam(required = false) CommentStatus status,
+                                                             @RequestParam(defaultValue = "0") int from,
+                                                             @RequestParam(defaultValue = "10") int size,
+                                                             @RequestParam(required = false) String cursor) {
+        return commentService.getAdminComments(eventId, status, from, size, cursor).toResponse();
     }
 
     @PatchMapping("/{commentId}")
@@ -5,6 +5,7 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.comment.dto.CommentDto;
 import ru.practicum.comment.dto.NewCommentDto;
@@ -29,9 +30,11 @@ public class PrivateCommentController {
     }
 
     @GetMapping
-    public List<CommentDto> getUserComments(@PathVariable Long userId, @RequestParam(defaultValue = "0") int from,
-                                            @RequestParam(defaultValue = "10") int size) {
-        return commentService.getUserComments(userId, from, size);
+    public ResponseEntity<List<CommentDto>> getUserComments(@PathVariable Long userId,
+                                                            @RequestParam(defaultValue = "0") int from,
+                                                            @RequestParam(defaultValue = "10") int size,
+                                                            @RequestParam(required = false) String cursor) {
+        return commentService.getUserComments(userId, from, size, cursor).toResponse();
     }
 
     @PatchMapping("/{commentId}")
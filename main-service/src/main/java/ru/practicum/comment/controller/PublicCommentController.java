@@ -3,6 +3,7 @@ package ru.practicum.comment.controller;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.comment.dto.CommentDto;
 import ru.practicum.comment.service.CommentService;
@@ -18,9 +19,10 @@ public class PublicCommentController {
     final CommentService commentService;
 
     @GetMapping
-    public List<CommentDto> getEventComments(@PathVariable Long eventId,
-                                             @RequestParam(defaultValue = "0") int from,
-                                             @RequestParam(defaultValue = "10") int size) {
-        return commentService.getEventComments(eventId, from, size);
+    public ResponseEntity<List<CommentDto>> getEventComments(@PathVariable Long eventId,
+                                                             @RequestParam(defaultValue = "0") int from,
+                                                             @RequestParam(defaultValue = "10") int size,
+                                                             @RequestParam(required = false) String cursor) {
+        return commentService.getEventComments(eventId, from, size, cursor).toResponse();
     }
 }
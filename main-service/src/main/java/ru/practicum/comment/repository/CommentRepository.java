@@ -1,22 +1,12 @@
 package ru.practicum.comment.repository;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import ru.practicum.comment.enmus.CommentStatus;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import ru.practicum.comment.model.Comment;
 
-import java.util.List;
 import java.util.Optional;
 
-public interface CommentRepository extends JpaRepository<Comment, Long> {
-
-    List<Comment> findAllByCommentatorId(Long userId, Pageable pageable);
-
-    List<Comment> findAllByEventId(Long eventId, Pageable pageable);
-
-    List<Comment> findAllByStatus(CommentStatus status, Pageable pageable);
-
-    List<Comment> findAllByEventIdAndStatus(Long eventId, CommentStatus status, Pageable pageable);
+public interface CommentRepository extends JpaRepository<Comment, Long>, JpaSpecificationExecutor<Comment> {
 
     Optional<Comment> findByIdAndCommentatorId(Long commentId, Long commentatorId);
 }
@@ -5,22 +5,21 @@ import ru.practicum.comment.dto.NewCommentDto;
 import ru.practicum.comment.dto.UpdateCommentDto;
 import ru.practicum.comment.dto.UpdateCommentStatusRequest;
 import ru.practicum.comment.enmus.CommentStatus;
-
-import java.util.List;
+import ru.practicum.pagination.CursorPage;
 
 public interface CommentService {
 
     CommentDto createComment(Long userId, Long eventId, NewCommentDto newCommentDto);
 
-    List<CommentDto> getUserComments(Long userId, int from, int size);
+    CursorPage<CommentDto> getUserComments(Long userId, int from, int size, String cursor);
 
     CommentDto updateUserComment(Long userId, Long commentId, UpdateCommentDto updateDto);
 
     void deleteUserComment(Long userId, Long commentId);
 
-    List<CommentDto> getEventComments(Long eventId, int from, int size);
+    CursorPage<CommentDto> getEventComments(Long eventId, int from, int size, String cursor);
 
-    List<CommentDto> getAdminComments(Long eventId, CommentStatus status, int from, int size);
+    CursorPage<CommentDto> getAdminComments(Long eventId, CommentStatus status, int from, int size, String cursor);
 
     CommentDto updateCommentStatus(Long commentId, UpdateCommentStatusRequest updateRequest);
 }
@@ -3,9 +3,8 @@ package ru.practicum.comment.service;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.comment.dto.CommentDto;
@@ -21,11 +20,13 @@ import ru.practicum.event.model.Event;
 import ru.practicum.event.repository.EventRepository;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.pagination.PageOrder;
+import ru.practicum.pagination.Pagination;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -33,6 +34,9 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class CommentServiceImpl implements CommentService {
 
+    private static final PageOrder<Comment> BY_CREATED =
+            PageOrder.by("created", Sort.Direction.ASC, Comment::getCreated, Comment::getId);
+
     final CommentRepository commentRepository;
     final UserRepository userRepository;
     final EventRepository eventRepository;
@@ -48,12 +52,12 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
-    public List<CommentDto> getUserComments(Long userId, int from, int size) {
+    public CursorPage<CommentDto> getUserComments(Long userId, int from, int size, String cursor) {
         throwIfUserNotExist(userId);
 
-        var pageNumber = from / size;
-        Pageable pageable = PageRequest.of(pageNumber, size, Sort.by("created"));
-        return CommentMapper.toCommentDtos(commentRepository.findAllByCommentatorId(userId, pageable));
+        return Pagination.find(commentRepository, CommentSpecifications.byCommentator(userId), BY_CREATED,
+                        from, size, cursor)
+                .mapAll(CommentMapper::toCommentDtos);
     }
 
     @Override
@@ -78,35 +82,26 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
-    public List<CommentDto> getEventComments(Long eventId, int from, int size) {
+    public CursorPage<CommentDto> getEventComments(Long eventId, int from, int size, String cursor) {
         throwIfEventNotExistAndPublished(eventId);
 
-        int pageNumber = from / size;
-        Pageable pageable = PageRequest.of(pageNumber, size, Sort.by("created"));
-
-        return CommentMapper.toCommentDtos(commentRepository.findAllByEventId(eventId, pageable));
+        return Pagination.find(commentRepository, CommentSpecifications.byEvent(eventId), BY_CREATED,
+                        from, size, cursor)
+                .mapAll(CommentMapper::toCommentDtos);
     }
 
     @Override
-    public List<CommentDto> getAdminComments(Long eventId, CommentStatus status, int from, int size) {
-        int pageNumber = from / size;
-        Pageable pageable = PageRequest.of(pageNumber, size, Sort.by("created"));
-
-        if (eventId != null && status != null) {
-            throwIfEventNotExist(eventId);
-            return CommentMapper.toCommentDtos(commentRepository.findAllByEventIdAndStatus(eventId, status, pageable));
-        }
-
+    public CursorPage<CommentDto> getAdminComments(Long eventId, CommentStatus status, int from, int size,
+                                                   String cursor) {
         if (eventId != null) {
             throwIfEventNotExist(eventId);
-            return CommentMapper.toCommentDtos(commentRepository.findAllByEventId(eventId, pageable));
-        }
-
-        if (status != null) {
-            return CommentMapper.toCommentDtos(commentRepository.findAllByStatus(status, pageable));
         }
 
-        return CommentMapper.toCommentDtos(commentRepository.findAll(pageable).getContent());
+        Specification<Comment> spec = Specification
+                .where(CommentSpecifications.byEvent(eventId))
+                .and(CommentSpecifications.withStatus(status));
+        return Pagination.find(commentRepository, spec, BY_CREATED, from, size, cursor)
+                .mapAll(CommentMapper::toCommentDtos);
     }
 
     @Override
@@ -0,0 +1,32 @@
+package ru.practicum.comment.service;
+
+import lombok.NoArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.comment.enmus.CommentStatus;
+import ru.practicum.comment.model.Comment;
+
+@NoArgsConstructor
+public final class CommentSpecifications {
+
+    public static Specification<Comment> byCommentator(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("commentator").get("id"), userId);
+    }
+
+    public static Specification<Comment> byEvent(Long eventId) {
+        return (root, query, cb) -> {
+            if (eventId == null) {
+                return cb.conjunction();
+            }
+            return cb.equal(root.get("event").get("id"), eventId);
+        };
+    }
+
+    public static Specification<Comment> withStatus(CommentStatus status) {
+        return (root, query, cb) -> {
+            if (status == null) {
+                return cb.conjunction();
+            }
+            return cb.equal(root.get("status"), status);
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.compilation.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.compilation.dto.CompilationDto;
 import ru.practicum.compilation.service.CompilationService;
@@ -15,10 +16,11 @@ public class PublicCompilationController {
     private final CompilationService compilationService;
 
     @GetMapping
-    public List<CompilationDto> getCompilations(@RequestParam(defaultValue = "false") Boolean pinned,
-                                                @RequestParam(defaultValue = "0") int from,
-                                                @RequestParam(defaultValue = "10") int size) {
-        return compilationService.getCompilations(pinned, from, size);
+    public ResponseEntity<List<CompilationDto>> getCompilations(@RequestParam(defaultValue = "false") Boolean pinned,
+                                                                @RequestParam(defaultValue = "0") int from,
+                                                                @RequestParam(defaultValue = "10") int size,
+                                                                @RequestParam(required = false) String cursor) {
+        return compilationService.getCompilations(pinned, from, size, cursor).toResponse();
     }
 
     @GetMapping("/{compId}")
@@ -1,12 +1,8 @@
 package ru.practicum.compilation.repository;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import ru.practicum.compilation.model.Compilation;
 
-import java.util.List;
-
-public interface CompilationRepository extends JpaRepository<Compilation, Long> {
-
-    List<Compilation> findByPinned(boolean pinned, Pageable pageable);
+public interface CompilationRepository extends JpaRepository<Compilation, Long>, JpaSpecificationExecutor<Compilation> {
 }
@@ -3,31 +3,28 @@ package ru.practicum.compilation.service;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.StatsClient;
 import ru.practicum.compilation.dto.CompilationDto;
 import ru.practicum.compilation.dto.NewCompilationDto;
 import ru.practicum.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.compilation.mapper.CompilationMapper;
 import ru.practicum.compilation.model.Compilation;
 import ru.practicum.compilation.repository.CompilationRepository;
-import ru.practicum.dto.StatsDto;
 import ru.practicum.event.dto.EventShortDto;
 import ru.practicum.event.mapper.EventMapper;
 import ru.practicum.event.model.Event;
 import ru.practicum.event.repository.EventRepository;
+import ru.practicum.event.service.EventViewsService;
 import ru.practicum.exception.NotFoundException;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.pagination.PageOrder;
+import ru.practicum.pagination.Pagination;
 
-import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -35,24 +32,20 @@ import java.util.stream.Collectors;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class CompilationServiceImpl implements CompilationService {
 
+    private static final PageOrder<Compilation> BY_ID = PageOrder.byId(Compilation::getId);
+
     final CompilationRepository compilationRepository;
     final EventRepository eventRepository;
-    final StatsClient statsClient;
+    final EventViewsService eventViewsService;
 
     @Override
-    public List<CompilationDto> getCompilations(Boolean pinned, int from, int size) {
-        var pageNumber = from / size;
-        Pageable pageable = PageRequest.of(pageNumber, size, Sort.by("id"));
-
-        List<Compilation> compilations;
-        if (pinned == null) {
-            compilations = compilationRepository.findAll(pageable).getContent();
-        } else {
-            compilations = compilationRepository.findByPinned(pinned, pageable);
-        }
-        return compilations.stream()
-                .map(compilation -> CompilationMapper.toCompilationDto(compilation, getEventDto(compilation.getEvents())))
-                .toList();
+    public CursorPage<CompilationDto> getCompilations(Boolean pinned, int from, int size, String cursor) {
+        Specification<Compilation> spec = pinned == null
+                ? null
+                : (root, query, cb) -> cb.equal(root.get("pinned"), pinned);
+        return Pagination.find(compilationRepository, spec, BY_ID, from, size, cursor)
+                .map(compilation -> CompilationMapper.toCompilationDto(compilation,
+                        getEventDto(compilation.getEvents())));
     }
 
     @Override
@@ -101,39 +94,12 @@ public class CompilationServiceImpl implements CompilationService {
             return List.of();
         } else {
             List<Event> events = eventSet.stream().toList();
-            var views = getEventsViews(events);
+            var views = eventViewsService.getViews(events.stream()
+                    .map(Event::getId)
+                    .toList());
             return events.stream()
                     .map(event -> EventMapper.toEventShortDto(event, views.getOrDefault(event.getId(), 0L)))
                     .toList();
         }
     }
-
-    private Map<Long, Long> getEventsViews(List<Event> events) {
-        if (events.isEmpty()) {
-            return Map.of();
-        }
-
-        List<String> uris = events.stream()
-                .map(e -> "/events/" + e.getId())
-                .toList();
-
-        LocalDateTime start = LocalDateTime.now().minusYears(10);
-        LocalDateTime end = LocalDateTime.now().plusHours(1);
-
-        List<StatsDto> stats = statsClient.getStats(start, end, uris, true).getBody();
-        if (stats == null || stats.isEmpty()) {
-            return Map.of();
-        }
-
-        return stats.stream()
-                .collect(Collectors.toMap(
-                        s -> extractEventId(s.getUri()),
-                        StatsDto::getHits,
-                        Long::sum
-                ));
-    }
-
-    private Long extractEventId(String uri) {
-        return Long.parseLong(uri.split("/")[2]);
-    }
 }
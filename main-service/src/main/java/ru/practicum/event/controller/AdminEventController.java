@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.event.dto.EventFullDto;
 import ru.practicum.event.dto.UpdateEventAdminRequest;
@@ -22,16 +23,20 @@ public class AdminEventController {
     private final EventService eventService;
 
     @GetMapping
-    public List<EventFullDto> getFullEvents(@RequestParam(required = false) List<Long> users,
-                                            @RequestParam(required = false) List<EventState> states,
-                                            @RequestParam(required = false) List<Long> categories,
-                                            @RequestParam(required = false)
-                                                @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
-                                            @RequestParam(required = false)
-                                                @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
-                                            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                            @RequestParam(defaultValue = "10") @Positive int size) {
-        return eventService.getFullEvents(users, states, categories, rangeStart, rangeEnd, from, size);
+    public ResponseEntity<List<EventFullDto>> getFullEvents(@RequestParam(required = false) List<Long> users,
+                                                            @RequestParam(required = false) List<EventState> states,
+                                                            @RequestParam(required = false) List<Long> categories,
+                                                            @RequestParam(required = false)
+                                                            @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                                                            LocalDateTime rangeStart,
+                                                            @RequestParam(required = false)
+                                                            @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                                                            LocalDateTime rangeEnd,
+                                                            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                            @RequestParam(defaultValue = "10") @Positive int size,
+                                                            @RequestParam(required = false) String cursor) {
+        return eventService.getFullEvents(users, states, categories, rangeStart, rangeEnd, from, size, cursor)
+                .toResponse();
     }
 
     @PatchMapping("/{eventId}")
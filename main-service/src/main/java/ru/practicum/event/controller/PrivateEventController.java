@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.event.dto.*;
 import ru.practicum.event.service.EventService;
@@ -20,10 +21,13 @@ public class PrivateEventController {
     private final EventService eventService;
 
     @GetMapping
-    public List<EventShortDto> getEventsByUserId(@PathVariable Long userId,
-                                                 @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                                 @RequestParam(defaultValue = "10") @Positive int size) {
-        return eventService.getEventsByUserId(userId, from, size);
+    public ResponseEntity<List<EventShortDto>> getEventsByUserId(@PathVariable Long userId,
+                                                                 @RequestParam(defaultValue = "0")
+                                                                 @PositiveOrZero int from,
+                                                                 @RequestParam(defaultValue = "10")
+                                                                 @Positive int size,
+                                                                 @RequestParam(required = false) String cursor) {
+        return eventService.getEventsByUserId(userId, from, size, cursor).toResponse();
     }
 
     @PostMapping
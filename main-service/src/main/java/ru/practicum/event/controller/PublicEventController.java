@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.event.dto.EventFullDto;
 import ru.practicum.event.dto.EventShortDto;
@@ -22,20 +23,23 @@ public class PublicEventController {
     private final EventService eventService;
 
     @GetMapping
-    public List<EventShortDto> getEvents(@RequestParam(required = false) String text,
-                                         @RequestParam(required = false) List<Long> categories,
-                                         @RequestParam(required = false) Boolean paid,
-                                         @RequestParam(required = false)
-                                             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
-                                         @RequestParam(required = false)
-                                             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
-                                         @RequestParam(defaultValue = "false") Boolean onlyAvailable,
-                                         @RequestParam(required = false) EventSort sort,
-                                         @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                         @RequestParam(defaultValue = "10") @Positive int size,
-                                         HttpServletRequest request) {
+    public ResponseEntity<List<EventShortDto>> getEvents(@RequestParam(required = false) String text,
+                                                         @RequestParam(required = false) List<Long> categories,
+                                                         @RequestParam(required = false) Boolean paid,
+                                                         @RequestParam(required = false)
+                                                         @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                                                         LocalDateTime rangeStart,
+                                                         @RequestParam(required = false)
+                                                         @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                                                         LocalDateTime rangeEnd,
+                                                         @RequestParam(defaultValue = "false") Boolean onlyAvailable,
+                                                         @RequestParam(required = false) EventSort sort,
+                                                         @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                         @RequestParam(defaultValue = "10") @Positive int size,
+                                                         @RequestParam(required = false) String cursor,
+                                                         HttpServletRequest request) {
         return eventService.getPublicEvents(text, categories, paid, rangeStart, rangeEnd,
-                onlyAvailable, sort, from, size, request);
+                onlyAvailable, sort, from, size, cursor, request).toResponse();
     }
 
     @GetMapping("/{id}")
@@ -67,4 +67,9 @@ public class Event {
 
     @Column(nullable = false)
     String title;
+
+    // Уникальные просмотры из stats-server, их пишет только EventViewsSynchronizer, поэтому сохранение события
+    // не должно затирать значение, прочитанное до очередной синхронизации.
+    @Column(updatable = false)
+    long views;
 }
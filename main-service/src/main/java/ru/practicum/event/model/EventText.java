@@ -0,0 +1,4 @@
+package ru.practicum.event.model;
+
+public record EventText(Long id, String annotation, String description) {
+}
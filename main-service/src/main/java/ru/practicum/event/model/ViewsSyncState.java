@@ -0,0 +1,24 @@
+package ru.practicum.event.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+// Курсор ленты /stats/changes, до которого просмотры уже перенесены в events.views. Строка одна, id = 1.
+@Entity
+@Table(name = "views_sync_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ViewsSyncState {
+    public static final int ID = 1;
+
+    @Id
+    Integer id;
+
+    @Column(name = "last_change_id", nullable = false)
+    Long lastChangeId;
+}
@@ -1,21 +1,43 @@
 package ru.practicum.event.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.event.enums.EventState;
 import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventText;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
 
-    List<Event> findAllByInitiatorId(Long userId, Pageable pageable);
-
+    // Без графа Hibernate догружает EAGER-связи события отдельными запросами после основного.
+    @EntityGraph(attributePaths = {"category", "initiator"})
     Optional<Event> findByIdAndInitiatorId(Long eventId, Long initiatorId);
 
+    @EntityGraph(attributePaths = {"category", "initiator"})
     Optional<Event> findByIdAndState(Long id, EventState state);
 
     boolean existsByCategoryId(Long categoryId);
+
+    @Query("SELECT e.id FROM Event e WHERE e.state = :state AND e.id > :afterId ORDER BY e.id")
+    List<Long> findIdsByStateAfter(EventState state, Long afterId, Limit limit);
+
+    @Query("""
+            SELECT new ru.practicum.event.model.EventText(e.id, e.annotation, e.description)
+            FROM Event e WHERE e.state = :state AND e.id > :afterId ORDER BY e.id
+            """)
+    List<EventText> findTextsByStateAfter(EventState state, Long afterId, Limit limit);
+
+    @Modifying
+    @Query(value = "UPDATE events SET views = views + :delta WHERE id = :id", nativeQuery = true)
+    int addViews(Long id, long delta);
+
+    @Modifying
+    @Query(value = "UPDATE events SET views = :views WHERE id = :id", nativeQuery = true)
+    int setViews(Long id, long views);
 }
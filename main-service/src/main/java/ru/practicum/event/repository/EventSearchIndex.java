@@ -0,0 +1,85 @@
+package ru.practicum.event.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Полнотекстовый поиск по событиям есть только в PostgreSQL: функции и GIN-индекс создаются при старте,
+// на других базах (H2 в тестах) поиск остаётся на LIKE. Функции объявлены на SQL без состояния, поэтому
+// планировщик подставляет их тело в запрос и использует индекс по event_search_vector(...).
+@Slf4j
+@Repository
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventSearchIndex {
+
+    private static final String CREATE_VECTOR = """
+            CREATE OR REPLACE FUNCTION event_search_vector(title text, annotation text, description text)
+            RETURNS tsvector LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+                SELECT setweight(to_tsvector('russian', coalesce(title, '')), 'A')
+                    || setweight(to_tsvector('russian', coalesce(annotation, '')), 'B')
+                    || setweight(to_tsvector('russian', coalesce(description, '')), 'C')
+            $$
+            """;
+
+    private static final String CREATE_MATCHES = """
+            CREATE OR REPLACE FUNCTION event_search_matches(title text, annotation text, description text, query text)
+            RETURNS boolean LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+                SELECT event_search_vector(title, annotation, description) @@ websearch_to_tsquery('russian', query)
+            $$
+            """;
+
+    private static final String CREATE_RANK = """
+            CREATE OR REPLACE FUNCTION event_search_rank(title text, annotation text, description text, query text)
+            RETURNS real LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+                SELECT ts_rank(event_search_vector(title, annotation, description),
+                               websearch_to_tsquery('russian', query))
+            $$
+            """;
+
+    private static final String CREATE_INDEX = """
+            CREATE INDEX IF NOT EXISTS ix_events_search
+            ON events USING gin (event_search_vector(title, annotation, description))
+            """;
+
+    final JdbcTemplate jdbcTemplate;
+    final boolean enabled;
+
+    boolean available;
+
+    public EventSearchIndex(JdbcTemplate jdbcTemplate,
+                            @Value("${event-search.full-text:false}") boolean enabled,
+                            @Value("${event-search.ngram.enabled:false}") boolean ngramEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        if (enabled && ngramEnabled) {
+            log.warn("Включены и event-search.full-text, и event-search.ngram.enabled: индекс n-грамм не создаётся");
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.info("Полнотекстовый поиск недоступен для {}, поиск событий идёт через LIKE", database);
+            return;
+        }
+        jdbcTemplate.execute(CREATE_VECTOR);
+        jdbcTemplate.execute(CREATE_MATCHES);
+        jdbcTemplate.execute(CREATE_RANK);
+        jdbcTemplate.execute(CREATE_INDEX);
+        available = true;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import ru.practicum.event.dto.*;
 import ru.practicum.event.enums.EventSort;
 import ru.practicum.event.enums.EventState;
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.request.dto.ParticipationRequestDto;
 
 import java.time.LocalDateTime;
@@ -11,20 +12,21 @@ import java.util.List;
 
 public interface EventService {
 
-    List<EventShortDto> getPublicEvents(String text, List<Long> categories,
-                                        Boolean paid, LocalDateTime rangeStart,
-                                        LocalDateTime rangeEnd, Boolean onlyAvailable,
-                                        EventSort sort, int from, int size,
-                                        HttpServletRequest httpServletRequest);
+    CursorPage<EventShortDto> getPublicEvents(String text, List<Long> categories,
+                                              Boolean paid, LocalDateTime rangeStart,
+                                              LocalDateTime rangeEnd, Boolean onlyAvailable,
+                                              EventSort sort, int from, int size, String cursor,
+                                              HttpServletRequest httpServletRequest);
 
-    List<EventFullDto> getFullEvents(List<Long> users, List<EventState> states, List<Long> categories,
-                                     LocalDateTime rangeStart, LocalDateTime rangeEnd, int from, int size);
+    CursorPage<EventFullDto> getFullEvents(List<Long> users, List<EventState> states, List<Long> categories,
+                                           LocalDateTime rangeStart, LocalDateTime rangeEnd, int from, int size,
+                                           String cursor);
 
     EventFullDto getEventById(Long evenId, HttpServletRequest servletRequest);
 
     EventFullDto updateEventById(Long eventId, UpdateEventAdminRequest updateRequest);
 
-    List<EventShortDto> getEventsByUserId(Long userId, int from, int size);
+    CursorPage<EventShortDto> getEventsByUserId(Long userId, int from, int size, String cursor);
 
     EventFullDto createEvent(Long userId, NewEventDto newEventDto);
 
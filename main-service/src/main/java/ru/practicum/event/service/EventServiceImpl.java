@@ -4,8 +4,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -15,17 +13,21 @@ import ru.practicum.RequestUpdateStatus;
 import ru.practicum.StatsClient;
 import ru.practicum.category.model.Category;
 import ru.practicum.category.repository.CategoryRepository;
-import ru.practicum.dto.StatsDto;
 import ru.practicum.event.dto.*;
 import ru.practicum.event.enums.EventSort;
 import ru.practicum.event.enums.EventState;
 import ru.practicum.event.enums.EventStateAction;
 import ru.practicum.event.mapper.EventMapper;
 import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventText;
 import ru.practicum.event.repository.EventRepository;
+import ru.practicum.event.repository.EventSearchIndex;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.exception.ValidationException;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.pagination.PageOrder;
+import ru.practicum.pagination.Pagination;
 import ru.practicum.request.dto.ParticipationRequestDto;
 import ru.practicum.request.mapper.RequestMapper;
 import ru.practicum.request.model.ParticipationRequest;
@@ -37,7 +39,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -45,67 +47,103 @@ import java.util.stream.Collectors;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class EventServiceImpl implements EventService {
 
+    private static final PageOrder<Event> BY_ID = PageOrder.byId(Event::getId);
+    private static final PageOrder<Event> BY_EVENT_DATE =
+            PageOrder.by("eventDate", Sort.Direction.ASC, Event::getEventDate, Event::getId);
+    private static final PageOrder<Event> BY_VIEWS =
+            PageOrder.by("views", Sort.Direction.DESC, Event::getViews, Event::getId);
+
     final EventRepository eventRepository;
     final UserRepository userRepository;
     final CategoryRepository categoryRepository;
     final RequestRepository requestRepository;
     final StatsClient statsClient;
+    final EventViewsService eventViewsService;
+    final EventSearchIndex eventSearchIndex;
+    final Optional<EventTextIndex> eventTextIndex;
 
     @Override
-    public List<EventShortDto> getPublicEvents(String text, List<Long> categories, Boolean paid,
-                                               LocalDateTime rangeStart, LocalDateTime rangeEnd,
-                                               Boolean onlyAvailable, EventSort sort,
-                                               int from, int size, HttpServletRequest httpServletRequest) {
-        Pageable pageable = getPageable(sort, from, size);
+    public CursorPage<EventShortDto> getPublicEvents(String text, List<Long> categories, Boolean paid,
+                                                     LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                     Boolean onlyAvailable, EventSort sort, int from, int size,
+                                                     String cursor, HttpServletRequest httpServletRequest) {
         validateDatesRange(rangeStart, rangeEnd);
+        boolean hasText = text != null && !text.isBlank();
+        // Индекс n-грамм отдаёт кандидатов, подстрока проверяется в базе только для них.
+        long[] candidates = hasText
+                ? eventTextIndex.map(index -> index.findCandidates(text)).orElse(null)
+                : null;
+        boolean fullText = hasText && candidates == null && eventSearchIndex.isAvailable();
+        Specification<Event> textSpec;
+        if (candidates != null) {
+            textSpec = EventSpecifications.inIds(candidates).and(EventSpecifications.textSearch(text));
+        } else if (fullText) {
+            textSpec = EventSpecifications.fullTextSearch(text);
+        } else {
+            textSpec = EventSpecifications.textSearch(text);
+        }
         Specification<Event> spec = Specification
-                .where(EventSpecifications.isPublished())
-                .and(EventSpecifications.textSearch(text))
+                .where(EventSpecifications.fetchCategoryAndInitiator())
+                .and(EventSpecifications.isPublished())
+                .and(textSpec)
                 .and(EventSpecifications.inCategories(categories))
                 .and(EventSpecifications.paid(paid))
                 .and(EventSpecifications.eventDateBetween(rangeStart, rangeEnd))
                 .and(EventSpecifications.onlyAvailable(onlyAvailable));
 
-        statsClient.hit(httpServletRequest);
+        // Без явной сортировки результаты поиска упорядочиваются по релевантности. Ранг не хранится в строке,
+        // поэтому курсором такую выдачу не продолжить - только через from.
+        boolean byRelevance = fullText && sort == null;
+        if (byRelevance && cursor != null) {
+            throw new ValidationException("Курсор не поддерживается при сортировке по релевантности");
+        }
 
-        List<Event> events = eventRepository.findAll(spec, pageable).getContent();
-        Map<Long, Long> eventsViews = getEventsViews(events);
+        statsClient.hitAsync(httpServletRequest);
+        if (candidates != null && candidates.length == 0) {
+            return new CursorPage<>(List.of(), null);
+        }
 
-        return events.stream()
-                .map(event -> EventMapper.toEventShortDto(event, eventsViews.getOrDefault(event.getId(), 0L)))
-                .toList();
+        CursorPage<Event> events;
+        if (byRelevance) {
+            events = new CursorPage<>(eventRepository.findBy(spec.and(EventSpecifications.orderByRelevance(text)),
+                    query -> query.limit(size).scroll(Pagination.skipping(from)).getContent()), null);
+        } else {
+            events = Pagination.find(eventRepository, spec, getPageOrder(sort), from, size, cursor);
+        }
+        return events.mapAll(this::toEventShortDtos);
     }
 
     @Override
     public EventFullDto getEventById(Long eventId, HttpServletRequest servletRequest) {
         Event event = eventRepository.findByIdAndState(eventId, EventState.PUBLISHED)
                 .orElseThrow(() -> new NotFoundException("Событие не найдено среди опубликованных"));
-        statsClient.hit(servletRequest);
+        statsClient.hitAsync(servletRequest);
         long views = getEventsViews(List.of(event)).getOrDefault(eventId, 0L);
         return EventMapper.toEventFullDto(event, views);
     }
 
     @Override
-    public List<EventFullDto> getFullEvents(List<Long> users, List<EventState> states, List<Long> categories,
-                                            LocalDateTime rangeStart, LocalDateTime rangeEnd, int from, int size) {
-        var pageNumber = from / size;
-        Pageable pageable = PageRequest.of(pageNumber, size, Sort.by("id"));
+    public CursorPage<EventFullDto> getFullEvents(List<Long> users, List<EventState> states, List<Long> categories,
+                                                  LocalDateTime rangeStart, LocalDateTime rangeEnd, int from, int size,
+                                                  String cursor) {
         validateDatesRange(rangeStart, rangeEnd);
         Specification<Event> spec = Specification
-                .where(EventSpecifications.initiatedByUsers(users))
+                .where(EventSpecifications.fetchCategoryAndInitiator())
+                .and(EventSpecifications.initiatedByUsers(users))
                 .and(EventSpecifications.inStates(states))
                 .and(EventSpecifications.inCategories(categories))
                 .and(EventSpecifications.eventDateBetween(rangeStart, rangeEnd));
 
-        List<Event> events = eventRepository.findAll(spec, pageable).getContent();
-        Map<Long, Long> eventsViews = getEventsViews(events);
-
-        return events.stream()
-                .map(event -> EventMapper.toEventFullDto(
-                        event,
-                        eventsViews.getOrDefault(event.getId(), 0L)
-                ))
-                .toList();
+        return Pagination.find(eventRepository, spec, BY_ID, from, size, cursor)
+                .mapAll(events -> {
+                    Map<Long, Long> eventsViews = getEventsViews(events);
+                    return events.stream()
+                            .map(event -> EventMapper.toEventFullDto(
+                                    event,
+                                    eventsViews.getOrDefault(event.getId(), 0L)
+                            ))
+                            .toList();
+                });
     }
 
     @Override
@@ -115,27 +153,26 @@ public class EventServiceImpl implements EventService {
 
         validateEventStateUpdate(event, updateRequest);
         validateEventDateUpdate(event, updateRequest);
+        EventText textBefore = toPublishedText(event);
         EventMapper.updateToEvent(event, updateRequest);
 
         if (updateRequest.getCategory() != null) {
             updateCategory(event, updateRequest.getCategory());
         }
         Event savedEvent = updateAdminEventStateAction(event, updateRequest.getStateAction());
+        eventTextIndex.ifPresent(index -> index.updateAfterCommit(eventId, textBefore, toPublishedText(savedEvent)));
         var views = getEventsViews(List.of(savedEvent)).getOrDefault(savedEvent.getId(), 0L);
         return EventMapper.toEventFullDto(savedEvent, views);
     }
 
     @Override
-    public List<EventShortDto> getEventsByUserId(Long userId, int from, int size) {
+    public CursorPage<EventShortDto> getEventsByUserId(Long userId, int from, int size, String cursor) {
         throwIfUserNotExist(userId);
-        int pageNumber = from / size;
-        Pageable pageable = PageRequest.of(pageNumber, size, Sort.by("id"));
-        List<Event> events = eventRepository.findAllByInitiatorId(userId, pageable);
-        Map<Long, Long> eventsViews = getEventsViews(events);
-
-        return events.stream()
-                .map(event -> EventMapper.toEventShortDto(event, eventsViews.getOrDefault(event.getId(), 0L)))
-                .toList();
+        Specification<Event> spec = Specification
+                .where(EventSpecifications.fetchCategoryAndInitiator())
+                .and(EventSpecifications.initiatedByUsers(List.of(userId)));
+        return Pagination.find(eventRepository, spec, BY_ID, from, size, cursor)
+                .mapAll(this::toEventShortDtos);
     }
 
     @Override
@@ -345,41 +382,32 @@ public class EventServiceImpl implements EventService {
         return eventRepository.save(event);
     }
 
-    private Map<Long, Long> getEventsViews(List<Event> events) {
-        if (events.isEmpty()) {
-            return Map.of();
-        }
-
-        List<String> uris = events.stream()
-                .map(e -> "/events/" + e.getId())
-                .toList();
-
-        LocalDateTime start = LocalDateTime.now().minusYears(10);
-        LocalDateTime end = LocalDateTime.now().plusHours(1);
-
-        List<StatsDto> stats = statsClient.getStats(start, end, uris, true).getBody();
-        if (stats == null || stats.isEmpty()) {
-            return Map.of();
-        }
+    private EventText toPublishedText(Event event) {
+        return event.getState() == EventState.PUBLISHED
+                ? new EventText(event.getId(), event.getAnnotation(), event.getDescription())
+                : null;
+    }
 
-        return stats.stream()
-                .collect(Collectors.toMap(
-                        s -> extractEventId(s.getUri()),
-                        StatsDto::getHits,
-                        Long::sum
-                ));
+    private Map<Long, Long> getEventsViews(List<Event> events) {
+        return eventViewsService.getViews(events.stream()
+                .map(Event::getId)
+                .toList());
     }
 
-    private Long extractEventId(String uri) {
-        return Long.parseLong(uri.split("/")[2]);
+    private List<EventShortDto> toEventShortDtos(List<Event> events) {
+        Map<Long, Long> eventsViews = getEventsViews(events);
+        return events.stream()
+                .map(event -> EventMapper.toEventShortDto(event, eventsViews.getOrDefault(event.getId(), 0L)))
+                .toList();
     }
 
-    private Pageable getPageable(EventSort sort, int from, int size) {
-        var pageNumber = from / size;
+    // К ключу сортировки добавляется id: без него порядок строк с равным ключом не определён и курсор
+    // мог бы пропустить или повторить строки на границе страниц.
+    private PageOrder<Event> getPageOrder(EventSort sort) {
         return switch (sort) {
-            case EVENT_DATE -> PageRequest.of(pageNumber, size, Sort.by("eventDate"));
-            case VIEWS -> PageRequest.of(pageNumber, size, Sort.by("views"));
-            case null -> PageRequest.of(pageNumber, size, Sort.by("id"));
+            case EVENT_DATE -> BY_EVENT_DATE;
+            case VIEWS -> BY_VIEWS;
+            case null -> BY_ID;
         };
     }
 }
@@ -1,17 +1,32 @@
 package ru.practicum.event.service;
 
 import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
 import lombok.NoArgsConstructor;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 import ru.practicum.event.enums.EventState;
 import ru.practicum.event.model.Event;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 @NoArgsConstructor
 public final class EventSpecifications {
 
+    // Категория и инициатор нужны в каждом DTO события: fetch join загружает их тем же запросом, что и страницу,
+    // вместо отдельных запросов на каждую строку. В запросе count fetch join недопустим.
+    public static Specification<Event> fetchCategoryAndInitiator() {
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("category", JoinType.LEFT);
+                root.fetch("initiator", JoinType.LEFT);
+            }
+            return cb.conjunction();
+        };
+    }
+
     public static Specification<Event> isPublished() {
         return (root, query, cb) ->
                 cb.equal(root.get("state"), EventState.PUBLISHED);
@@ -32,6 +47,30 @@ public final class EventSpecifications {
         };
     }
 
+    // Требует функций из EventSearchIndex, то есть PostgreSQL. Текст передаётся параметром запроса:
+    // cb.literal Hibernate подставил бы в SQL строкой.
+    public static Specification<Event> fullTextSearch(String text) {
+        return (root, query, cb) -> cb.isTrue(cb.function("event_search_matches", Boolean.class,
+                root.get("title"), root.get("annotation"), root.get("description"),
+                ((HibernateCriteriaBuilder) cb).value(text)));
+    }
+
+    // Задаёт только порядок строк: сначала самые релевантные, при равенстве - по id.
+    public static Specification<Event> orderByRelevance(String text) {
+        return (root, query, cb) -> {
+            query.orderBy(
+                    cb.desc(cb.function("event_search_rank", Float.class,
+                            root.get("title"), root.get("annotation"), root.get("description"),
+                            ((HibernateCriteriaBuilder) cb).value(text))),
+                    cb.asc(root.get("id")));
+            return cb.conjunction();
+        };
+    }
+
+    public static Specification<Event> inIds(long[] ids) {
+        return (root, query, cb) -> root.get("id").in(Arrays.stream(ids).boxed().toList());
+    }
+
     public static Specification<Event> inCategories(List<Long> categories) {
         return (root, query, cb) -> {
             if (categories == null || categories.isEmpty()) {
@@ -0,0 +1,286 @@
+package ru.practicum.event.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.event.enums.EventState;
+import ru.practicum.event.model.EventText;
+import ru.practicum.event.repository.EventRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Инвертированный индекс триграмм по аннотации и описанию опубликованных событий: для каждой триграммы -
+// отсортированный массив id событий. Индекс только сужает круг кандидатов, подстрока затем проверяется
+// в базе через LIKE. Поэтому лишние id в списках безопасны, а пропущенные - нет: событие добавляется
+// в индекс после каждого коммита, который его публикует или меняет, а периодическая перестройка собирает
+// индекс заново и подменяет им текущий, убирая и потерянные, и лишние id. Индекс отвечает подстрочной семантике LIKE, поэтому при включённом
+// полнотекстовом поиске он не создаётся: иначе смысл и порядок выдачи зависели бы от того, ответил ли индекс.
+@Slf4j
+@Component
+@ConditionalOnExpression("${event-search.ngram.enabled:false} and !${event-search.full-text:false}")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventTextIndex {
+
+    private static final int N = 3;
+
+    final EventRepository eventRepository;
+    final int rebuildBatchSize;
+    final int maxCandidates;
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    Map<Long, Postings> postings = new HashMap<>();
+    // Изменения, закоммиченные во время перестройки; null, если перестройка не идёт.
+    List<TextUpdate> pending;
+    volatile boolean ready;
+
+    public EventTextIndex(EventRepository eventRepository,
+                          @Value("${event-search.ngram.rebuild-batch-size:1000}") int rebuildBatchSize,
+                          @Value("${event-search.ngram.max-candidates:10000}") int maxCandidates) {
+        this.eventRepository = eventRepository;
+        this.rebuildBatchSize = rebuildBatchSize;
+        this.maxCandidates = maxCandidates;
+    }
+
+    // Пока индекс строится после старта, поиск идёт через базу.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${event-search.ngram.rebuild-interval-ms:3600000}",
+            initialDelayString = "${event-search.ngram.rebuild-interval-ms:3600000}")
+    // Новый индекс строится без блокировки; изменения, закоммиченные за это время, повторяются на нём перед
+    // подменой. Повтор безопасен и для событий, уже прочитанных с новым текстом.
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        Map<Long, Postings> fresh = new HashMap<>();
+        long afterId = 0;
+        int count = 0;
+        setPending(new ArrayList<>());
+        try {
+            List<EventText> batch;
+            while (!(batch = eventRepository.findTextsByStateAfter(EventState.PUBLISHED, afterId,
+                    Limit.of(rebuildBatchSize))).isEmpty()) {
+                for (EventText text : batch) {
+                    add(fresh, text.id(), ngrams(text.annotation(), text.description()));
+                }
+                afterId = batch.getLast().id();
+                count += batch.size();
+            }
+            lock.writeLock().lock();
+            try {
+                pending.forEach(update -> apply(fresh, update));
+                postings = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            setPending(null);
+        }
+        ready = true;
+        log.info("Индекс n-грамм построен: {} событий, {} n-грамм за {} мс", count, postingsCount(),
+                System.currentTimeMillis() - started);
+    }
+
+    // before и after - текст события до и после изменения, null для неопубликованного.
+    public void updateAfterCommit(Long eventId, EventText before, EventText after) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update(eventId, before, after);
+                }
+            });
+        } else {
+            update(eventId, before, after);
+        }
+    }
+
+    // Отсортированные id событий, в тексте которых есть все n-граммы запроса, или null, если индекс ответить
+    // не может: он ещё строится, запрос короче n-граммы, содержит символы шаблона LIKE или слишком общий.
+    public long[] findCandidates(String text) {
+        if (!ready || text.indexOf('%') >= 0 || text.indexOf('_') >= 0) {
+            return null;
+        }
+        long[] grams = ngrams(text);
+        if (grams.length == 0) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return new long[0];
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            if (lists[0].size > maxCandidates) {
+                return null;
+            }
+            long[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int size = result.length;
+            for (int i = 1; i < lists.length && size > 0; i++) {
+                size = lists[i].retain(result, size);
+            }
+            return Arrays.copyOf(result, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(Long eventId, EventText before, EventText after) {
+        TextUpdate update = new TextUpdate(eventId,
+                before == null ? new long[0] : ngrams(before.annotation(), before.description()),
+                after == null ? new long[0] : ngrams(after.annotation(), after.description()));
+        lock.writeLock().lock();
+        try {
+            apply(postings, update);
+            if (pending != null) {
+                pending.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setPending(List<TextUpdate> updates) {
+        lock.writeLock().lock();
+        try {
+            pending = updates;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Map<Long, Postings> index, TextUpdate update) {
+        for (long gram : update.removed()) {
+            if (Arrays.binarySearch(update.added(), gram) < 0) {
+                Postings list = index.get(gram);
+                if (list != null && list.remove(update.eventId()) && list.size == 0) {
+                    index.remove(gram);
+                }
+            }
+        }
+        add(index, update.eventId(), update.added());
+    }
+
+    private static void add(Map<Long, Postings> index, long eventId, long[] grams) {
+        for (long gram : grams) {
+            index.computeIfAbsent(gram, key -> new Postings()).add(eventId);
+        }
+    }
+
+    private int postingsCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Различные n-граммы всех текстов, отсортированные. Символ занимает 16 бит, n-грамма - младшие 48 бит long.
+    // N-граммы не пересекают границу текстов: LIKE проверяет аннотацию и описание по отдельности.
+    static long[] ngrams(String... texts) {
+        int total = 0;
+        for (String text : texts) {
+            if (text != null) {
+                total += Math.max(text.length() - N + 1, 0);
+            }
+        }
+        long[] grams = new long[total];
+        int size = 0;
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            String lower = text.toLowerCase(Locale.ROOT);
+            for (int i = 0; i + N <= lower.length(); i++) {
+                grams[size++] = ((long) lower.charAt(i) << 32) | ((long) lower.charAt(i + 1) << 16)
+                        | lower.charAt(i + 2);
+            }
+        }
+        Arrays.sort(grams, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    // removed и added - отсортированные n-граммы текста до и после изменения.
+    private record TextUpdate(long eventId, long[] removed, long[] added) {
+    }
+
+    // Новые события обычно получают id больше существующих, поэтому добавление почти всегда идёт в конец массива.
+    private static final class Postings {
+
+        long[] ids = new long[2];
+        int size;
+
+        void add(long id) {
+            int position = size;
+            if (size > 0 && ids[size - 1] >= id) {
+                position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return;
+                }
+                position = -position - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            if (size > 0 && size <= ids.length / 4) {
+                ids = Arrays.copyOf(ids, ids.length / 2);
+            }
+            return true;
+        }
+
+        // Оставляет в первых size элементах candidates только id из этого списка, возвращает их число.
+        // Оба массива отсортированы, поэтому поиск каждого следующего id начинается с места предыдущего.
+        int retain(long[] candidates, int size) {
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < size && from < this.size; i++) {
+                int position = Arrays.binarySearch(ids, from, this.size, candidates[i]);
+                if (position >= 0) {
+                    candidates[kept++] = candidates[i];
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.event.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.StatsClient;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventViewsBatcher {
+
+    final StatsClient statsClient;
+    final int maxBatchSize;
+    final long windowMs;
+    final ScheduledExecutorService executor;
+    final Object lock = new Object();
+
+    Map<Long, CompletableFuture<Long>> pending = new HashMap<>();
+    ScheduledFuture<?> scheduledFlush;
+
+    public EventViewsBatcher(StatsClient statsClient,
+                             @Value("${views-batch.max-size:200}") int maxBatchSize,
+                             @Value("${views-batch.window-ms:5}") long windowMs,
+                             @Value("${views-batch.threads:4}") int threads) {
+        this.statsClient = statsClient;
+        this.maxBatchSize = maxBatchSize;
+        this.windowMs = windowMs;
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "views-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Map<Long, Long>> load(Collection<? extends Long> eventIds) {
+        Map<Long, CompletableFuture<Long>> futures = new HashMap<>();
+        Map<Long, CompletableFuture<Long>> fullBatch = null;
+        synchronized (lock) {
+            for (Long eventId : eventIds) {
+                futures.put(eventId, pending.computeIfAbsent(eventId, id -> new CompletableFuture<>()));
+            }
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = takePending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            Map<Long, CompletableFuture<Long>> batch = fullBatch;
+            executor.execute(() -> send(batch));
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<Long, Long> views = new HashMap<>();
+                    futures.forEach((id, future) -> views.put(id, future.join()));
+                    return views;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        executor.shutdown();
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<Long>> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private void send(Map<Long, CompletableFuture<Long>> batch) {
+        List<Long> eventIds = List.copyOf(batch.keySet());
+        for (int from = 0; from < eventIds.size(); from += maxBatchSize) {
+            Map<Long, CompletableFuture<Long>> chunk = new HashMap<>();
+            eventIds.subList(from, Math.min(from + maxBatchSize, eventIds.size()))
+                    .forEach(id -> chunk.put(id, batch.get(id)));
+            sendChunk(chunk);
+        }
+    }
+
+    private Map<Long, CompletableFuture<Long>> takePending() {
+        Map<Long, CompletableFuture<Long>> batch = pending;
+        pending = new HashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void sendChunk(Map<Long, CompletableFuture<Long>> batch) {
+        try {
+            long[] eventIds = batch.keySet().stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+
+            LocalDateTime start = LocalDateTime.now().minusYears(10);
+            LocalDateTime end = LocalDateTime.now().plusHours(1);
+
+            Map<Long, Long> views = statsClient.getEventStats(start, end, eventIds, true).getBody();
+            batch.forEach((id, future) -> future.complete(views == null ? 0L : views.getOrDefault(id, 0L)));
+        } catch (RuntimeException e) {
+            log.warn("Не удалось получить статистику просмотров для {} событий: {}", batch.size(), e.getMessage());
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
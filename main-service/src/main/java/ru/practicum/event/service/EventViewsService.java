@@ -0,0 +1,9 @@
+package ru.practicum.event.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface EventViewsService {
+
+    Map<Long, Long> getViews(Collection<Long> eventIds);
+}
@@ -0,0 +1,61 @@
+package ru.practicum.event.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventViewsServiceImpl implements EventViewsService {
+
+    final AsyncLoadingCache<Long, Long> cache;
+
+    public EventViewsServiceImpl(EventViewsBatcher eventViewsBatcher,
+                                 @Value("${views-cache.maximum-size:100000}") long maximumSize,
+                                 @Value("${views-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                                 @Value("${views-cache.refresh-after-write:30s}") Duration refreshAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<? extends Long> asyncLoad(Long eventId, Executor executor) {
+                        return eventViewsBatcher.load(Set.of(eventId)).thenApply(views -> views.get(eventId));
+                    }
+
+                    @Override
+                    public CompletableFuture<? extends Map<? extends Long, ? extends Long>> asyncLoadAll(
+                            Set<? extends Long> eventIds, Executor executor) {
+                        return eventViewsBatcher.load(eventIds);
+                    }
+                });
+    }
+
+    @Override
+    public Map<Long, Long> getViews(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return cache.getAll(eventIds).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
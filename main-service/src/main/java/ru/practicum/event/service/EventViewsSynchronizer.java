@@ -0,0 +1,159 @@
+package ru.practicum.event.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.StatsClient;
+import ru.practicum.dto.StatsChangeDto;
+import ru.practicum.dto.StatsChangesDto;
+import ru.practicum.event.enums.EventState;
+import ru.practicum.event.model.ViewsSyncState;
+import ru.practicum.event.repository.EventRepository;
+import ru.practicum.event.repository.ViewsSyncStateRepository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Переносит уникальные просмотры событий из ленты /stats/changes в events.views, по которой сортируется
+// выдача sort=VIEWS. Приращения и курсор ленты сохраняются в одной транзакции, поэтому после перезапуска
+// пакет не будет учтён дважды.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "views-sync.enabled", havingValue = "true", matchIfMissing = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventViewsSynchronizer {
+
+    private static final Pattern EVENT_URI = Pattern.compile("^/events/([1-9][0-9]{0,17})$");
+
+    final StatsClient statsClient;
+    final EventRepository eventRepository;
+    final ViewsSyncStateRepository viewsSyncStateRepository;
+    final TransactionTemplate transactionTemplate;
+    final int batchSize;
+    final int maxBatchesPerRun;
+    final int recountBatchSize;
+
+    public EventViewsSynchronizer(StatsClient statsClient,
+                                  EventRepository eventRepository,
+                                  ViewsSyncStateRepository viewsSyncStateRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${views-sync.batch-size:1000}") int batchSize,
+                                  @Value("${views-sync.max-batches-per-run:100}") int maxBatchesPerRun,
+                                  @Value("${views-sync.recount-batch-size:200}") int recountBatchSize) {
+        this.statsClient = statsClient;
+        this.eventRepository = eventRepository;
+        this.viewsSyncStateRepository = viewsSyncStateRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.recountBatchSize = recountBatchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${views-sync.interval-ms:5000}")
+    public synchronized void sync() {
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                if (!syncBatch()) {
+                    return;
+                }
+            }
+            log.warn("Синхронизация просмотров не догнала ленту изменений за {} пакетов", maxBatchesPerRun);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось синхронизировать просмотры событий: {}", e.getMessage());
+        }
+    }
+
+    // Приращения расходятся с /stats: просмотры, пришедшие во время пересчёта, теряются, а посетитель,
+    // удалённый из hit_visitors по сроку, при возвращении снова приходит как новый. Плановый пересчёт
+    // ограничивает расхождение одним периодом.
+    @Scheduled(cron = "${views-sync.recount-cron:0 15 4 * * *}")
+    public synchronized void reconcile() {
+        try {
+            log.info("Плановый пересчёт просмотров опубликованных событий");
+            recount();
+        } catch (RuntimeException e) {
+            log.warn("Не удалось пересчитать просмотры событий: {}", e.getMessage());
+        }
+    }
+
+    // false, если лента прочитана до конца.
+    private boolean syncBatch() {
+        long cursor = viewsSyncStateRepository.findById(ViewsSyncState.ID)
+                .map(ViewsSyncState::getLastChangeId)
+                .orElse(0L);
+        StatsChangesDto changes = statsClient.getChanges(cursor, batchSize).getBody();
+        if (changes == null) {
+            return false;
+        }
+        // Сервер статистики отвечает reset и на cursor=0, если лента не пуста: просмотры ещё не синхронизировались.
+        if (Boolean.TRUE.equals(changes.getReset())) {
+            if (cursor == 0) {
+                log.info("Просмотры событий ещё не синхронизировались, пересчёт просмотров опубликованных событий");
+            } else {
+                log.warn("Лента изменений статистики обрезана, пересчёт просмотров опубликованных событий");
+            }
+            recount();
+            return true;
+        }
+        if (changes.getChanges().isEmpty()) {
+            return false;
+        }
+
+        Map<Long, Long> deltas = new HashMap<>();
+        for (StatsChangeDto change : changes.getChanges()) {
+            Matcher matcher = EVENT_URI.matcher(change.getUri());
+            if (matcher.matches() && change.getNewUnique() > 0) {
+                deltas.merge(Long.parseLong(matcher.group(1)), change.getNewUnique(), Long::sum);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            deltas.forEach(eventRepository::addViews);
+            saveCursor(changes.getCursor());
+        });
+        return true;
+    }
+
+    // Часть ленты уже удалена или не была прочитана, приращения восстановить нельзя: просмотры пересчитываются
+    // целиком. Курсор берётся после пересчёта, поэтому пришедшие за время пересчёта просмотры не будут
+    // прибавлены к уже пересчитанным повторно; часть из них может не попасть в колонку до планового пересчёта.
+    private void recount() {
+        LocalDateTime start = LocalDateTime.now().minusYears(10);
+        LocalDateTime end = LocalDateTime.now().plusHours(1);
+        long afterId = 0;
+        List<Long> eventIds;
+        while (!(eventIds = eventRepository.findIdsByStateAfter(EventState.PUBLISHED, afterId,
+                Limit.of(recountBatchSize))).isEmpty()) {
+            Map<Long, Long> views = statsClient.getEventStats(start, end,
+                    eventIds.stream().mapToLong(Long::longValue).toArray(), true).getBody();
+            List<Long> batch = eventIds;
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(id ->
+                    eventRepository.setViews(id, views == null ? 0L : views.getOrDefault(id, 0L))));
+            afterId = eventIds.getLast();
+        }
+        long cursor = latestCursor();
+        transactionTemplate.executeWithoutResult(status -> saveCursor(cursor));
+    }
+
+    // На since=0 сервер статистики отвечает reset с текущим курсором ленты, для пустой ленты курсор равен 0.
+    private long latestCursor() {
+        StatsChangesDto head = statsClient.getChanges(0, 1).getBody();
+        if (head == null) {
+            throw new IllegalStateException("Сервер статистики не вернул курсор ленты изменений");
+        }
+        return head.getCursor();
+    }
+
+    private void saveCursor(long cursor) {
+        viewsSyncStateRepository.save(new ViewsSyncState(ViewsSyncState.ID, cursor));
+    }
+}
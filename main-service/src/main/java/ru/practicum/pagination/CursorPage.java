@@ -0,0 +1,30 @@
+package ru.practicum.pagination;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Страница выдачи и курсор следующей страницы; null, если страница последняя или курсор не поддерживается.
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+
+    // Для преобразований, которым нужна вся страница сразу, например один запрос просмотров на страницу.
+    public <R> CursorPage<R> mapAll(Function<List<T>, List<R>> mapper) {
+        return new CursorPage<>(mapper.apply(items), nextCursor);
+    }
+
+    // Тело ответа остаётся списком, как и без курсора; курсор передаётся в заголовке.
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.pagination;
+
+import ru.practicum.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Позиция после последней строки страницы: сортировка, значение ключа и id. Для клиента курсор непрозрачен -
+// это base64url от "сортировка|ключ|id".
+record PageCursor(String order, String key, long id) {
+
+    String encode() {
+        String raw = order + "|" + (key == null ? "" : key) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageCursor decode(String cursor, String expectedOrder) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
+        if (parts.length != 3) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
+        if (!parts[0].equals(expectedOrder)) {
+            throw new ValidationException("Курсор получен для другой сортировки");
+        }
+        try {
+            return new PageCursor(parts[0], parts[1].isEmpty() ? null : parts[1], Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.pagination;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.function.Function;
+
+// Порядок постраничной выдачи: ключ сортировки и id, который делает порядок однозначным. key == null -
+// сортировка только по id. keyGetter и idGetter достают значения последней строки страницы для курсора.
+public record PageOrder<T>(String key, Sort.Direction direction, Function<T, ?> keyGetter,
+                           Function<T, Long> idGetter) {
+
+    public static <T> PageOrder<T> byId(Function<T, Long> idGetter) {
+        return new PageOrder<>(null, Sort.Direction.ASC, null, idGetter);
+    }
+
+    public static <T> PageOrder<T> by(String key, Sort.Direction direction, Function<T, ?> keyGetter,
+                                      Function<T, Long> idGetter) {
+        return new PageOrder<>(key, direction, keyGetter, idGetter);
+    }
+
+    public Sort toSort() {
+        if (key == null) {
+            return Sort.by("id");
+        }
+        return Sort.by(new Sort.Order(direction, key), Sort.Order.asc("id"));
+    }
+
+    // Записывается в курсор, чтобы курсор одной сортировки нельзя было передать в другую.
+    String tag() {
+        return key == null ? "id" : key + "," + direction.name().toLowerCase();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.pagination;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import ru.practicum.exception.ValidationException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+// Постраничное чтение двумя способами: по from/size со смещением и по курсору (keyset). Смещение заставляет
+// базу прочитать и отбросить from строк, курсор начинает чтение по индексу сразу с нужного места. Общее число
+// строк ответу не нужно, поэтому запроса count нет ни в одном из способов.
+@UtilityClass
+public class Pagination {
+
+    public <T> CursorPage<T> find(JpaSpecificationExecutor<T> repository, Specification<T> spec,
+                                  PageOrder<T> order, int from, int size, String cursor) {
+        Sort sort = order.toSort();
+        List<T> items;
+        if (cursor == null) {
+            items = repository.findBy(Specification.where(spec),
+                    query -> query.sortBy(sort).limit(size).scroll(skipping(from)).getContent());
+        } else {
+            PageCursor position = PageCursor.decode(cursor, order.tag());
+            if (order.key() != null && position.key() == null) {
+                throw new ValidationException("Курсор не содержит значения ключа сортировки");
+            }
+            Specification<T> after = after(order, position);
+            items = repository.findBy(Specification.where(spec).and(after),
+                    query -> query.sortBy(sort).limit(size).all());
+        }
+        return new CursorPage<>(items, nextCursor(order, items, size));
+    }
+
+    // Позиция, с которой выдача пропускает ровно rows строк: ScrollPosition.offset(n) продолжает после строки
+    // с номером n, то есть пропускает n + 1 строку.
+    public ScrollPosition skipping(long rows) {
+        return rows == 0 ? ScrollPosition.offset() : ScrollPosition.offset(rows - 1);
+    }
+
+    // Неполная страница - последняя. Строку без значения ключа курсор не опишет, такая выдача продолжается по from.
+    private <T> String nextCursor(PageOrder<T> order, List<T> items, int size) {
+        if (items.size() < size) {
+            return null;
+        }
+        T last = items.getLast();
+        String key = null;
+        if (order.key() != null) {
+            Object value = order.keyGetter().apply(last);
+            if (value == null) {
+                return null;
+            }
+            key = value.toString();
+        }
+        return new PageCursor(order.tag(), key, order.idGetter().apply(last)).encode();
+    }
+
+    // (key, id) > (k, i) в виде key >= k AND (key > k OR id > i): условие key >= k база берёт границей диапазона
+    // индекса. Для убывающего ключа сравнения ключа меняются местами, id всегда возрастает.
+    private <T> Specification<T> after(PageOrder<T> order, PageCursor cursor) {
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("id");
+            if (order.key() == null) {
+                return cb.greaterThan(id, cursor.id());
+            }
+            return afterKey(cb, root.get(order.key()), order.direction(), cursor.key(), id, cursor.id());
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate afterKey(CriteriaBuilder cb, Path<Comparable> key, Sort.Direction direction, String rawValue,
+                               Path<Long> id, long lastId) {
+        Comparable value = parseKey(rawValue, key.getJavaType());
+        Predicate pastLast = cb.or(
+                direction.isAscending() ? cb.greaterThan(key, value) : cb.lessThan(key, value),
+                cb.greaterThan(id, lastId));
+        return cb.and(
+                direction.isAscending() ? cb.greaterThanOrEqualTo(key, value) : cb.lessThanOrEqualTo(key, value),
+                pastLast);
+    }
+
+    private Comparable<?> parseKey(String value, Class<?> type) {
+        try {
+            if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            }
+            if (type == Long.class || type == long.class) {
+                return Long.parseLong(value);
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new ValidationException("Некорректное значение ключа в курсоре: " + value);
+        }
+        throw new IllegalStateException("Ключ курсора типа %s не поддерживается".formatted(type.getName()));
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.user.service;
 
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.user.dto.NewUserRequest;
 import ru.practicum.user.dto.UserDto;
 
@@ -7,7 +8,7 @@ import java.util.List;
 
 public interface UserService {
 
-    List<UserDto> getUsers(List<Long> ids, int from, int size);
+    CursorPage<UserDto> getUsers(List<Long> ids, int from, int size, String cursor);
 
     UserDto createUser(NewUserRequest userRequest);
 
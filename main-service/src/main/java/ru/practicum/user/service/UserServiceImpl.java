@@ -3,12 +3,13 @@ package ru.practicum.user.service;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.exception.DuplicateValidationException;
 import ru.practicum.exception.NotFoundException;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.pagination.PageOrder;
+import ru.practicum.pagination.Pagination;
 import ru.practicum.user.dto.NewUserRequest;
 import ru.practicum.user.dto.UserDto;
 import ru.practicum.user.mapper.UserMapper;
@@ -24,19 +25,19 @@ import java.util.Optional;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class UserServiceImpl implements UserService {
 
+    private static final PageOrder<User> BY_ID = PageOrder.byId(User::getId);
+
     final UserRepository userRepository;
 
     @Override
-    public List<UserDto> getUsers(List<Long> ids, int from, int size) {
-        int page = from / size;
+    public CursorPage<UserDto> getUsers(List<Long> ids, int from, int size, String cursor) {
         if (ids == null || ids.isEmpty()) {
-            return userRepository.findAll(PageRequest.of(page, size, Sort.by("id")))
-                    .map(UserMapper::toUserDto)
-                    .toList();
+            return Pagination.find(userRepository, null, BY_ID, from, size, cursor)
+                    .map(UserMapper::toUserDto);
         }
-        return userRepository.findAllById(ids).stream()
+        return new CursorPage<>(userRepository.findAllById(ids).stream()
                 .map(UserMapper::toUserDto)
-                .toList();
+                .toList(), null);
     }
 
     @Override
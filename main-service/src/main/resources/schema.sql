@@ -36,9 +36,24 @@ CREATE TABLE IF NOT EXISTS events (
   published_on TIMESTAMP WITHOUT TIME ZONE,
   request_moderation boolean,
   state VARCHAR(32),
-  title VARCHAR(120) NOT NULL
+  title VARCHAR(120) NOT NULL,
+  views BIGINT NOT NULL DEFAULT 0
 );
 
+ALTER TABLE events ADD COLUMN IF NOT EXISTS views BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS ix_events_state_views ON events (state, views DESC, id);
+CREATE INDEX IF NOT EXISTS ix_events_state_event_date ON events (state, event_date, id);
+
+CREATE TABLE IF NOT EXISTS views_sync_state (
+  id INTEGER NOT NULL,
+  last_change_id BIGINT NOT NULL,
+  CONSTRAINT pk_views_sync_state PRIMARY KEY (id)
+);
+
+INSERT INTO views_sync_state (id, last_change_id)
+SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM views_sync_state);
+
 CREATE TABLE IF NOT EXISTS compilations_events (
   event_id INTEGER REFERENCES events (id) ON DELETE CASCADE,
   compilation_id INTEGER REFERENCES compilations (id) ON DELETE CASCADE
@@ -62,3 +77,6 @@ CREATE TABLE IF NOT EXISTS comments (
   commentator INTEGER REFERENCES users (id) ON DELETE RESTRICT,
   status VARCHAR(32) NOT NULL
 );
+
+CREATE INDEX IF NOT EXISTS ix_comments_event_created ON comments (event, created, id);
+CREATE INDEX IF NOT EXISTS ix_comments_commentator_created ON comments (commentator, created, id);
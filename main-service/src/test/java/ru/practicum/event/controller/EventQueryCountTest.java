@@ -0,0 +1,134 @@
+package ru.practicum.event.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.StatsClient;
+import ru.practicum.pagination.CursorPage;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Число SQL-запросов на страницу событий не должно зависеть от числа строк: категории и инициаторы
+// загружаются вместе с событиями, отдельного запроса count нет. У каждого события своя категория и свой
+// инициатор, поэтому догрузка связей по одной строке сразу изменила бы счётчик.
+@SpringBootTest
+@AutoConfigureMockMvc
+class EventQueryCountTest {
+
+    private static final int EVENTS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private StatsClient statsClient;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        when(statsClient.getEventStats(any(), any(), any(), anyBoolean())).thenReturn(ResponseEntity.ok(Map.of()));
+
+        jdbcTemplate.update("DELETE FROM events");
+        jdbcTemplate.update("DELETE FROM categories");
+        jdbcTemplate.update("DELETE FROM users");
+        LocalDateTime eventDate = LocalDateTime.now().plusDays(10);
+        for (long i = 1; i <= EVENTS; i++) {
+            jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, ?, ?)",
+                    i, "user" + i, "user" + i + "@mail.ru");
+            jdbcTemplate.update("INSERT INTO categories (id, name) VALUES (?, ?)", i, "category" + i);
+            jdbcTemplate.update("""
+                            INSERT INTO events (id, annotation, category, confirmed_requests, created_on, description,
+                                                event_date, initiator, lat, lon, paid, participant_limit,
+                                                published_on, request_moderation, state, title, views)
+                            VALUES (?, ?, ?, 0, ?, ?, ?, ?, 55.75, 37.61, false, 0, ?, true, 'PUBLISHED', ?, ?)
+                            """,
+                    i, "Концерт номер " + i, i, eventDate.minusDays(20), "Описание события " + i,
+                    eventDate.plusHours(i), i, eventDate.minusDays(5), "Событие " + i, i * 10);
+        }
+    }
+
+    @Test
+    void publicEventsPageRunsOneStatement() throws Exception {
+        assertThat(countStatements(get("/events"), EVENTS)).isEqualTo(1);
+    }
+
+    @Test
+    void publicEventsSortedByViewsRunOneStatement() throws Exception {
+        assertThat(countStatements(get("/events").param("sort", "VIEWS"), EVENTS)).isEqualTo(1);
+    }
+
+    @Test
+    void publicEventsCursorPageRunsOneStatement() throws Exception {
+        String cursor = mockMvc.perform(get("/events").param("sort", "VIEWS").param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(CursorPage.NEXT_CURSOR_HEADER);
+        assertThat(cursor).isNotNull();
+
+        assertThat(countStatements(get("/events").param("sort", "VIEWS").param("size", "2")
+                .param("cursor", cursor), 2)).isEqualTo(1);
+    }
+
+    @Test
+    void publicEventsTextSearchRunsOneStatement() throws Exception {
+        assertThat(countStatements(get("/events").param("text", "концерт"), EVENTS)).isEqualTo(1);
+    }
+
+    @Test
+    void publicEventByIdRunsOneStatement() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/events/{id}", 3))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category.id").value(3))
+                .andExpect(jsonPath("$.initiator.id").value(3));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void adminEventsPageRunsOneStatement() throws Exception {
+        assertThat(countStatements(get("/admin/events"), EVENTS)).isEqualTo(1);
+    }
+
+    // Отдельный запрос проверяет, что пользователь существует.
+    @Test
+    void userEventsPageRunsTwoStatements() throws Exception {
+        assertThat(countStatements(get("/users/{userId}/events", 2), 1)).isEqualTo(2);
+    }
+
+    private long countStatements(MockHttpServletRequestBuilder request, int expectedEvents) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(expectedEvents));
+        return statistics.getPrepareStatementCount();
+    }
+}
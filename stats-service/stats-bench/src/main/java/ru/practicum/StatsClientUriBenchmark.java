@@ -0,0 +1,54 @@
+package ru.practicum;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestClient;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Лежит в пакете клиента, чтобы вызывать buildStatsUri напрямую, без HTTP-запроса.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsClientUriBenchmark {
+
+    @Param({"1", "100"})
+    private int uriCount;
+
+    private StatsClient statsClient;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private List<String> uris;
+
+    @Setup
+    public void setUp() {
+        statsClient = new StatsClient(RestClient.create(), "ewm-main-service",
+                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"), null, null);
+        start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        end = start.plusDays(30);
+        uris = IntStream.range(0, uriCount)
+                .mapToObj(i -> "/events/" + i)
+                .toList();
+    }
+
+    @Benchmark
+    public String buildStatsUri() {
+        return statsClient.buildStatsUri(start, end, uris, true, null);
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.columnar.ColumnarHitStore;
+import ru.practicum.dto.HitDto;
+import ru.practicum.dto.StatsDto;
+import ru.practicum.mapper.HitMapper;
+import ru.practicum.model.Hit;
+import ru.practicum.model.HitCount;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// То же, что считает findStats: просмотры за период по паре (app, uri), при unique - число различных IP,
+// по убыванию числа просмотров. Сравниваются группировка по строкам и скан колоночного хранилища.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class AggregationBenchmark {
+
+    private static final String[] APPS = {"ewm-main-service", "ewm-admin", "ewm-mobile"};
+
+    @Param({"100000", "1000000"})
+    private int hits;
+
+    @Param({"100", "10000"})
+    private int uris;
+
+    @Param({"false", "true"})
+    private boolean unique;
+
+    private List<HitDto> hitDtos;
+    private ColumnarHitStore store;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        end = LocalDateTime.of(2024, 1, 2, 0, 0);
+        start = end.minusDays(1);
+        hitDtos = new ArrayList<>(hits);
+        List<Hit> columns = new ArrayList<>(hits);
+        for (int i = 0; i < hits; i++) {
+            int appId = random.nextInt(APPS.length);
+            int uriId = random.nextInt(uris);
+            HitDto hitDto = HitDto.builder()
+                    .app(APPS[appId])
+                    .uri("/events/" + uriId)
+                    .ip("10.0." + random.nextInt(16) + "." + random.nextInt(256))
+                    .timestamp(start.plusSeconds(random.nextInt(86_400)))
+                    .build();
+            hitDtos.add(hitDto);
+            columns.add(HitMapper.toHit(hitDto, appId + 1, uriId + 1));
+        }
+        // Хранилище наполняется напрямую, warmUp из базы не вызывается.
+        store = new ColumnarHitStore(null, null, 65_536, Duration.ofDays(3650), 0);
+        store.append(columns);
+    }
+
+    @Benchmark
+    public List<StatsDto> groupByStrings() {
+        Map<AppUri, Long> counts = new HashMap<>();
+        Map<AppUri, Set<String>> visitors = new HashMap<>();
+        for (HitDto hitDto : hitDtos) {
+            if (hitDto.getTimestamp().isBefore(start) || !hitDto.getTimestamp().isBefore(end)) {
+                continue;
+            }
+            AppUri key = new AppUri(hitDto.getApp(), hitDto.getUri());
+            if (unique) {
+                visitors.computeIfAbsent(key, k -> new HashSet<>()).add(hitDto.getIp());
+            } else {
+                counts.merge(key, 1L, Long::sum);
+            }
+        }
+        if (unique) {
+            visitors.forEach((key, ips) -> counts.put(key, (long) ips.size()));
+        }
+        return counts.entrySet().stream()
+                .map(entry -> StatsDto.builder()
+                        .app(entry.getKey().app())
+                        .uri(entry.getKey().uri())
+                        .hits(entry.getValue())
+                        .build())
+                .sorted(Comparator.comparing(StatsDto::getHits).reversed())
+                .toList();
+    }
+
+    @Benchmark
+    public List<HitCount> columnarScan() {
+        return store.findStats(start, end, null, unique);
+    }
+
+    private record AppUri(String app, String uri) {
+    }
+}
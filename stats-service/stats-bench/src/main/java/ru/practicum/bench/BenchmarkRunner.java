@@ -0,0 +1,29 @@
+package ru.practicum.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Запуск: mvn -pl stats-service/stats-bench -am package -DskipTests && java -jar stats-service/stats-bench/target/benchmarks.jar
+// Аргументы командной строки JMH (-f, -wi, -i, -p, фильтр по имени) передаются как есть.
+// Результаты пишутся в JSON, путь задаётся -Dstats.bench.result=...
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Path result = Path.of(System.getProperty("stats.bench.result", "target/jmh-result.json")).toAbsolutePath();
+        Files.createDirectories(result.getParent());
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(new CommandLineOptions(args));
+        options.resultFormat(ResultFormatType.JSON)
+                .result(result.toString());
+        new Runner(options.build()).run();
+    }
+}
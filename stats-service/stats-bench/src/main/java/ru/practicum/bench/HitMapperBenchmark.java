@@ -0,0 +1,64 @@
+package ru.practicum.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.dto.HitDto;
+import ru.practicum.mapper.HitMapper;
+import ru.practicum.model.Hit;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitMapperBenchmark {
+
+    private HitDto ipv4Dto;
+    private HitDto ipv6Dto;
+    private Hit hit;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 12, 0);
+        ipv4Dto = HitDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/1")
+                .ip("192.163.0.1")
+                .timestamp(timestamp)
+                .build();
+        ipv6Dto = HitDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/1")
+                .ip("2001:db8::ff00:42:8329")
+                .timestamp(timestamp)
+                .build();
+        hit = HitMapper.toHit(ipv4Dto, 1, 1);
+    }
+
+    @Benchmark
+    public Hit toHitIpv4() {
+        return HitMapper.toHit(ipv4Dto, 1, 1);
+    }
+
+    @Benchmark
+    public Hit toHitIpv6() {
+        return HitMapper.toHit(ipv6Dto, 1, 1);
+    }
+
+    @Benchmark
+    public HitDto toHitDto() {
+        return HitMapper.toHitDto(hit, "ewm-main-service", "/events/1");
+    }
+}
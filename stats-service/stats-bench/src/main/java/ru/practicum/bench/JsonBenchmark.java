@@ -0,0 +1,83 @@
+package ru.practicum.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.dto.HitDto;
+import ru.practicum.dto.StatsDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private HitDto hitDto;
+    private String hitJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        hitDto = HitDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/1")
+                .ip("192.163.0.1")
+                .timestamp(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+        hitJson = objectMapper.writeValueAsString(hitDto);
+    }
+
+    @Benchmark
+    public String writeHit() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(hitDto);
+    }
+
+    @Benchmark
+    public HitDto readHit() throws JsonProcessingException {
+        return objectMapper.readValue(hitJson, HitDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeStats(StatsState state) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(state.stats);
+    }
+
+    @State(Scope.Benchmark)
+    public static class StatsState {
+
+        @Param({"10", "1000"})
+        private int statsSize;
+
+        private List<StatsDto> stats;
+
+        @Setup
+        public void setUp() {
+            stats = IntStream.range(0, statsSize)
+                    .mapToObj(i -> StatsDto.builder()
+                            .app("ewm-main-service")
+                            .uri("/events/" + i)
+                            .hits((long) (statsSize - i))
+                            .build())
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package ru.practicum;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+import ru.practicum.dto.HitDto;
+import ru.practicum.journal.HitJournal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public class AsyncHitSender implements AutoCloseable {
+
+    private final RestClient restClient;
+    private final BlockingQueue<HitDto> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final HitOverflowPolicy overflowPolicy;
+    private final HitJournal journal;
+    private final long replayIntervalMs;
+    private final Thread worker;
+    private final Thread replayer;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong spilledCount = new AtomicLong();
+    private final AtomicLong replayedCount = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public AsyncHitSender(RestClient restClient, int queueCapacity, int batchSize,
+                          long flushIntervalMs, HitOverflowPolicy overflowPolicy) {
+        this(restClient, queueCapacity, batchSize, flushIntervalMs, overflowPolicy, null, 0);
+    }
+
+    public AsyncHitSender(RestClient restClient, int queueCapacity, int batchSize,
+                          long flushIntervalMs, HitOverflowPolicy overflowPolicy,
+                          HitJournal journal, long replayIntervalMs) {
+        // Без журнала SPILL мог бы только отправлять переполнение синхронно в потоке запроса.
+        if (overflowPolicy == HitOverflowPolicy.SPILL && journal == null) {
+            throw new IllegalArgumentException("Политика переполнения SPILL требует включённого журнала"
+                    + " (stats-server.hits.journal.enabled)");
+        }
+        this.restClient = restClient;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.journal = journal;
+        this.replayIntervalMs = replayIntervalMs;
+        this.worker = new Thread(this::run, "stats-hit-sender");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        if (journal != null) {
+            this.replayer = new Thread(this::replay, "stats-hit-replayer");
+            this.replayer.setDaemon(true);
+            this.replayer.start();
+        } else {
+            this.replayer = null;
+        }
+    }
+
+    public void submit(HitDto hitDto) {
+        if (queue.offer(hitDto)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP -> droppedCount.incrementAndGet();
+            case BLOCK -> {
+                try {
+                    queue.put(hitDto);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedCount.incrementAndGet();
+                }
+            }
+            case SPILL -> spill(List.of(hitDto));
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    public long getReplayedCount() {
+        return replayedCount.get();
+    }
+
+    public boolean hasJournalPending() {
+        return journal != null && journal.hasPending();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        if (replayer != null) {
+            replayer.interrupt();
+        }
+        try {
+            worker.join(flushIntervalMs);
+            if (replayer != null) {
+                replayer.join(flushIntervalMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<HitDto> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            send(rest);
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void run() {
+        List<HitDto> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                log.debug("Отправка статистики прервана, осталось в очереди: {}", queue.size());
+            }
+            if (!batch.isEmpty()) {
+                send(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void replay() {
+        while (running) {
+            int replayed = journal.replay(batchSize, this::trySend);
+            if (replayed > 0) {
+                replayedCount.addAndGet(replayed);
+                continue;
+            }
+            // 0 - журнал дочитан (повреждённые записи journal пропускает сам), -1 - сервер недоступен:
+            // в обоих случаях ждём, а не опрашиваем журнал в цикле.
+            journal.forceIfDue();
+            try {
+                Thread.sleep(replayIntervalMs);
+            } catch (InterruptedException e) {
+                log.debug("Повторная отправка статистики из журнала остановлена");
+            }
+        }
+    }
+
+    private void collectBatch(List<HitDto> batch) throws InterruptedException {
+        HitDto first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.currentTimeMillis();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            HitDto next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void send(List<HitDto> batch) {
+        if (trySend(batch)) {
+            return;
+        }
+        if (journal != null) {
+            spill(batch);
+        } else {
+            failedCount.addAndGet(batch.size());
+        }
+    }
+
+    private boolean trySend(List<HitDto> batch) {
+        try {
+            restClient.post()
+                    .uri("/hits")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(batch)
+                    .retrieve()
+                    .toBodilessEntity();
+            sentCount.addAndGet(batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Не удалось отправить пакет статистики из {} просмотров: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    // По одной записи: просмотр, который не помещается в журнал, не должен терять остальные просмотры пакета.
+    private void spill(List<HitDto> batch) {
+        for (HitDto hitDto : batch) {
+            try {
+                journal.append(hitDto);
+                spilledCount.incrementAndGet();
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                log.error("Не удалось записать просмотр в журнал: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package ru.practicum;
+
+public enum HitOverflowPolicy {
+    DROP, BLOCK, SPILL
+}
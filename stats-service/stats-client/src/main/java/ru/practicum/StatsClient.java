@@ -1,5 +1,6 @@
 package ru.practicum;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
@@ -8,29 +9,36 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.util.UriComponentsBuilder;
+import ru.practicum.dto.EventStatsRequestDto;
 import ru.practicum.dto.HitDto;
+import ru.practicum.dto.StatsChangesDto;
 import ru.practicum.dto.StatsDto;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Component
 @RequiredArgsConstructor
 public class StatsClient {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final RestClient restClient;
     private final String appName;
     private final DateTimeFormatter formatter;
+    private final AsyncHitSender asyncHitSender;
+    private final ObjectMapper objectMapper;
 
     public ResponseEntity<HitDto> hit(HttpServletRequest request) {
-        HitDto hitDto = HitDto.builder()
-                .ip(request.getRemoteAddr())
-                .uri(request.getRequestURI())
-                .app(appName)
-                .timestamp(LocalDateTime.now())
-                .build();
+        HitDto hitDto = toHitDto(request);
 
         return restClient.post()
                 .uri("/hit")
@@ -40,13 +48,104 @@ public class StatsClient {
                 .toEntity(HitDto.class);
     }
 
+    public ResponseEntity<Void> hit(List<HitDto> hitDtos) {
+        return restClient.post()
+                .uri("/hits")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(hitDtos)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    public void hitAsync(HttpServletRequest request) {
+        asyncHitSender.submit(toHitDto(request));
+    }
+
     public ResponseEntity<List<StatsDto>> getStats(LocalDateTime start,
                                                    LocalDateTime end,
                                                    List<String> uris,
                                                    Boolean unique) {
+        return getStats(start, end, uris, unique, null);
+    }
+
+    public ResponseEntity<List<StatsDto>> getStats(LocalDateTime start,
+                                                   LocalDateTime end,
+                                                   List<String> uris,
+                                                   Boolean unique,
+                                                   Boolean approximate) {
+
+        validateDates(start, end);
+
+        return restClient.get()
+                .uri(buildStatsUri(start, end, uris, unique, approximate))
+                .retrieve()
+                .toEntity(new ParameterizedTypeReference<List<StatsDto>>() {});
+    }
+
+    public void streamStats(LocalDateTime start,
+                            LocalDateTime end,
+                            List<String> uris,
+                            Boolean unique,
+                            Consumer<StatsDto> consumer) {
 
         validateDates(start, end);
 
+        restClient.get()
+                .uri(buildStatsUri(start, end, uris, unique, null))
+                .accept(APPLICATION_NDJSON)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw new RestClientException("Сервер статистики вернул ошибку: " + response.getStatusCode());
+                    }
+                    try (BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (!line.isBlank()) {
+                                consumer.accept(objectMapper.readValue(line, StatsDto.class));
+                            }
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    public ResponseEntity<Map<Long, Long>> getEventStats(LocalDateTime start,
+                                                         LocalDateTime end,
+                                                         long[] eventIds,
+                                                         boolean unique) {
+
+        validateDates(start, end);
+
+        return restClient.post()
+                .uri("/stats/events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(EventStatsRequestDto.builder()
+                        .start(start)
+                        .end(end)
+                        .ids(eventIds)
+                        .unique(unique)
+                        .build())
+                .retrieve()
+                .toEntity(new ParameterizedTypeReference<Map<Long, Long>>() {});
+    }
+
+    public ResponseEntity<StatsChangesDto> getChanges(long since, int limit) {
+        return restClient.get()
+                .uri(UriComponentsBuilder.fromPath("/stats/changes")
+                        .queryParam("since", since)
+                        .queryParam("limit", limit)
+                        .build()
+                        .toUriString())
+                .retrieve()
+                .toEntity(StatsChangesDto.class);
+    }
+
+    String buildStatsUri(LocalDateTime start,
+                         LocalDateTime end,
+                         List<String> uris,
+                         Boolean unique,
+                         Boolean approximate) {
         UriComponentsBuilder uriBuilder = UriComponentsBuilder
                 .fromPath("/stats")
                 .queryParam("start", formatter.format(start))
@@ -58,11 +157,19 @@ public class StatsClient {
         if (unique != null) {
             uriBuilder.queryParam("unique", unique);
         }
+        if (approximate != null) {
+            uriBuilder.queryParam("approximate", approximate);
+        }
+        return uriBuilder.build().toUriString();
+    }
 
-        return restClient.get()
-                .uri(uriBuilder.build().toUriString())
-                .retrieve()
-                .toEntity(new ParameterizedTypeReference<List<StatsDto>>() {});
+    private HitDto toHitDto(HttpServletRequest request) {
+        return HitDto.builder()
+                .ip(request.getRemoteAddr())
+                .uri(request.getRequestURI())
+                .app(appName)
+                .timestamp(LocalDateTime.now())
+                .build();
     }
 
     private void validateDates(LocalDateTime start, LocalDateTime end) {
@@ -1,10 +1,14 @@
 package ru.practicum;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestClient;
+import ru.practicum.journal.HitJournal;
 
+import java.nio.file.Path;
 import java.time.format.DateTimeFormatter;
 
 @Configuration
@@ -22,6 +26,43 @@ public class StatsClientConfig {
         return appName;
     }
 
+    @Bean(destroyMethod = "close")
+    public AsyncHitSender asyncHitSender(RestClient statsRestClient,
+                                         @Value("${stats-server.hits.queue-capacity:10000}") int queueCapacity,
+                                         @Value("${stats-server.hits.batch-size:100}") int batchSize,
+                                         @Value("${stats-server.hits.flush-interval-ms:1000}") long flushIntervalMs,
+                                         @Value("${stats-server.hits.overflow-policy:DROP}")
+                                         HitOverflowPolicy overflowPolicy,
+                                         @Value("${stats-server.hits.journal.enabled:false}") boolean journalEnabled,
+                                         @Value("${stats-server.hits.journal.directory:stats-journal}")
+                                         String journalDirectory,
+                                         @Value("${stats-server.hits.journal.segment-size:16777216}") int segmentSize,
+                                         @Value("${stats-server.hits.journal.replay-interval-ms:5000}")
+                                         long replayIntervalMs,
+                                         @Value("${stats-server.hits.journal.force-interval-ms:1000}")
+                                         long forceIntervalMs) {
+        HitJournal journal = journalEnabled
+                ? new HitJournal(Path.of(journalDirectory), segmentSize, forceIntervalMs)
+                : null;
+        return new AsyncHitSender(statsRestClient, queueCapacity, batchSize, flushIntervalMs, overflowPolicy,
+                journal, replayIntervalMs);
+    }
+
+    // Регистрируется в MeterRegistry приложения, если в нём есть Micrometer (например, через actuator).
+    @Bean
+    public MeterBinder asyncHitSenderMetrics(AsyncHitSender asyncHitSender) {
+        return registry -> {
+            Gauge.builder("stats.hits.queue.depth", asyncHitSender, AsyncHitSender::getQueueDepth)
+                    .register(registry);
+            Gauge.builder("stats.hits.sent", asyncHitSender, AsyncHitSender::getSentCount).register(registry);
+            Gauge.builder("stats.hits.dropped", asyncHitSender, AsyncHitSender::getDroppedCount).register(registry);
+            Gauge.builder("stats.hits.failed", asyncHitSender, AsyncHitSender::getFailedCount).register(registry);
+            Gauge.builder("stats.hits.spilled", asyncHitSender, AsyncHitSender::getSpilledCount).register(registry);
+            Gauge.builder("stats.hits.replayed", asyncHitSender, AsyncHitSender::getReplayedCount)
+                    .register(registry);
+        };
+    }
+
     @Bean
     public DateTimeFormatter statsDateTimeFormatter() {
         return DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
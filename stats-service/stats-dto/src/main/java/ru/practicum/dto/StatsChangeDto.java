@@ -0,0 +1,16 @@
+package ru.practicum.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StatsChangeDto {
+    String app;
+    String uri;
+    Long hits;
+    Long newUnique;
+}
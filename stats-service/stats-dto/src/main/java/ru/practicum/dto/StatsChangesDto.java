@@ -0,0 +1,17 @@
+package ru.practicum.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StatsChangesDto {
+    Long cursor;
+    Boolean reset;
+    List<StatsChangeDto> changes;
+}
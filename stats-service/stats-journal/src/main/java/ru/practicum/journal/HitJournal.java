@@ -0,0 +1,315 @@
+package ru.practicum.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.dto.HitDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+@Slf4j
+public class HitJournal implements AutoCloseable {
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String OFFSET_FILE = "journal.offset";
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    // Длина строки пишется двумя байтами и читается как беззнаковая.
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long forceIntervalMs;
+
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private boolean dirty;
+    private long lastForceMs;
+
+    private volatile long readSegment;
+    private volatile int readPosition;
+    private MappedByteBuffer readBuffer;
+    private long readBufferSegment = -1;
+
+    public HitJournal(Path directory, int segmentSize) {
+        this(directory, segmentSize, -1);
+    }
+
+    // Запись в отображённый сегмент сразу попадает в page cache и переживает падение процесса, но не сбой ОС
+    // или питания: на диск её сбрасывает force(). forceIntervalMs ограничивает это окно потерь: 0 - force после
+    // каждой записи, отрицательное значение - только при смене сегмента и закрытии журнала.
+    public HitJournal(Path directory, int segmentSize, long forceIntervalMs) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forceIntervalMs = forceIntervalMs;
+        try {
+            Files.createDirectories(directory);
+            List<Long> segments = listSegments();
+            writeSegment = segments.isEmpty() ? 0 : segments.getLast() + 1;
+            writeBuffer = map(writeSegment, FileChannel.MapMode.READ_WRITE);
+            restoreOffset(segments);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал статистики " + directory, e);
+        }
+    }
+
+    public synchronized void append(HitDto hitDto) {
+        write(encode(hitDto));
+        forceIfDue();
+    }
+
+    // Все записи кодируются до первой записи в сегмент: некорректная запись отклоняет весь список целиком.
+    public synchronized void appendAll(List<HitDto> hitDtos) {
+        List<byte[]> payloads = hitDtos.stream()
+                .map(this::encode)
+                .toList();
+        payloads.forEach(this::write);
+        forceIfDue();
+    }
+
+    public synchronized void force() {
+        writeBuffer.force();
+        dirty = false;
+        lastForceMs = System.currentTimeMillis();
+    }
+
+    // Вызывается и из фоновых циклов чтения, чтобы последние записи сбрасывались на диск и без новых append.
+    public synchronized void forceIfDue() {
+        if (dirty && forceIntervalMs >= 0 && System.currentTimeMillis() - lastForceMs >= forceIntervalMs) {
+            force();
+        }
+    }
+
+    public synchronized boolean hasPending() {
+        return readSegment < writeSegment || readPosition < writeBuffer.position();
+    }
+
+    // Возвращает число переданных sender записей, 0 - если читать нечего, -1 - если sender пакет не принял.
+    // Дочитанные сегменты удаляются здесь же, поэтому 0 означает, что до новых записей можно ждать.
+    public int replay(int maxRecords, Predicate<List<HitDto>> sender) {
+        while (true) {
+            long segment;
+            int limit;
+            boolean current;
+            synchronized (this) {
+                segment = readSegment;
+                current = segment == writeSegment;
+                limit = current ? writeBuffer.position() : segmentSize;
+            }
+
+            ByteBuffer buffer = readBuffer(segment);
+            List<HitDto> batch = new ArrayList<>();
+            int position = readPosition;
+            while (batch.size() < maxRecords && position + HEADER_SIZE <= limit) {
+                int length = buffer.getInt(position);
+                boolean valid = length > 0 && position + HEADER_SIZE + length <= limit;
+                byte[] payload = valid ? new byte[length] : null;
+                if (valid) {
+                    buffer.get(position + HEADER_SIZE, payload);
+                    CRC32 crc = new CRC32();
+                    crc.update(payload);
+                    valid = (int) crc.getValue() == buffer.getInt(position + Integer.BYTES);
+                }
+                if (!valid) {
+                    // В старом сегменте это конец данных или запись, оборванная падением. В текущем сегменте
+                    // граница следующей записи неизвестна, поэтому пропускается вся записанная часть.
+                    if (current) {
+                        log.warn("Повреждённая запись в текущем сегменте журнала {} на позиции {},"
+                                + " пропущено {} байт", segment, position, limit - position);
+                        position = limit;
+                    } else if (length != 0) {
+                        log.warn("Повреждённая запись в сегменте журнала {} на позиции {}, остаток сегмента"
+                                + " пропущен", segment, position);
+                    }
+                    break;
+                }
+                try {
+                    batch.add(decode(payload));
+                } catch (RuntimeException e) {
+                    log.warn("Запись в сегменте журнала {} на позиции {} не разобрана и пропущена: {}",
+                            segment, position, e.getMessage());
+                }
+                position += HEADER_SIZE + length;
+            }
+
+            if (batch.isEmpty()) {
+                if (!current) {
+                    finishSegment(segment);
+                    continue;
+                }
+                if (position != readPosition) {
+                    readPosition = position;
+                    saveOffset();
+                }
+                return 0;
+            }
+            if (!sender.test(batch)) {
+                return -1;
+            }
+            readPosition = position;
+            saveOffset();
+            return batch.size();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+        saveOffset();
+    }
+
+    private synchronized long currentWriteSegment() {
+        return writeSegment;
+    }
+
+    private void write(byte[] payload) {
+        if (HEADER_SIZE + payload.length > segmentSize) {
+            throw new IllegalArgumentException("Запись не помещается в сегмент журнала: " + payload.length);
+        }
+        if (writeBuffer.remaining() < HEADER_SIZE + payload.length) {
+            rotate();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        writeBuffer.putInt(payload.length);
+        writeBuffer.putInt((int) crc.getValue());
+        writeBuffer.put(payload);
+        dirty = true;
+    }
+
+    private synchronized void rotate() {
+        force();
+        writeSegment++;
+        writeBuffer = map(writeSegment, FileChannel.MapMode.READ_WRITE);
+    }
+
+    private void finishSegment(long segment) {
+        try {
+            readBuffer = null;
+            readBufferSegment = -1;
+            Files.deleteIfExists(segmentPath(segment));
+            readSegment = listSegments().stream()
+                    .filter(s -> s > segment)
+                    .findFirst()
+                    .orElse(currentWriteSegment());
+            readPosition = 0;
+            saveOffset();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ByteBuffer readBuffer(long segment) {
+        if (readBufferSegment != segment) {
+            readBuffer = map(segment, FileChannel.MapMode.READ_ONLY);
+            readBufferSegment = segment;
+        }
+        return readBuffer;
+    }
+
+    private void restoreOffset(List<Long> segments) throws IOException {
+        readSegment = segments.isEmpty() ? writeSegment : segments.getFirst();
+        readPosition = 0;
+        Path offsetPath = directory.resolve(OFFSET_FILE);
+        if (!Files.exists(offsetPath)) {
+            return;
+        }
+        String[] offset = Files.readString(offsetPath).trim().split(" ");
+        long savedSegment = Long.parseLong(offset[0]);
+        if (segments.contains(savedSegment)) {
+            readSegment = savedSegment;
+            readPosition = Integer.parseInt(offset[1]);
+        }
+    }
+
+    private void saveOffset() {
+        try {
+            Path tmp = directory.resolve(OFFSET_FILE + ".tmp");
+            Files.writeString(tmp, readSegment + " " + readPosition, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+            Files.move(tmp, directory.resolve(OFFSET_FILE), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить позицию журнала статистики", e);
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private MappedByteBuffer map(long segment, FileChannel.MapMode mode) {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(mode, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть сегмент журнала " + segment, e);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve("%020d%s".formatted(segment, SEGMENT_SUFFIX));
+    }
+
+    private byte[] encode(HitDto hitDto) {
+        byte[] app = toBytes("app", hitDto.getApp());
+        byte[] uri = toBytes("uri", hitDto.getUri());
+        byte[] ip = toBytes("ip", hitDto.getIp());
+        LocalDateTime timestamp = hitDto.getTimestamp();
+        return ByteBuffer.allocate(3 * Short.BYTES + app.length + uri.length + ip.length + Long.BYTES + Integer.BYTES)
+                .putShort((short) app.length).put(app)
+                .putShort((short) uri.length).put(uri)
+                .putShort((short) ip.length).put(ip)
+                .putLong(timestamp.toEpochSecond(ZoneOffset.UTC))
+                .putInt(timestamp.getNano())
+                .array();
+    }
+
+    private byte[] toBytes(String field, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Поле %s длиной %d байт не помещается в запись журнала"
+                    .formatted(field, bytes.length));
+        }
+        return bytes;
+    }
+
+    private HitDto decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        String app = readString(buffer);
+        String uri = readString(buffer);
+        String ip = readString(buffer);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        return HitDto.builder()
+                .app(app)
+                .uri(uri)
+                .ip(ip)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
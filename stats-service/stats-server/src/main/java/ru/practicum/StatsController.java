@@ -1,25 +1,41 @@
 package ru.practicum;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.dto.EventStatsRequestDto;
 import ru.practicum.dto.HitDto;
+import ru.practicum.dto.StatsChangesDto;
 import ru.practicum.dto.StatsDto;
 import ru.practicum.service.StatsService;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping
+@Validated
 @RequiredArgsConstructor
 public class StatsController {
 
     private static final String PATTERN = "yyyy-MM-dd HH:mm:ss";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
     private final StatsService statsService;
+    private final ObjectMapper objectMapper;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping("/hit")
@@ -27,14 +43,62 @@ public class StatsController {
         return statsService.saveHit(hitDto);
     }
 
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping("/hits")
+    public void saveHits(@RequestBody List<@Valid HitDto> hitDtos) {
+        statsService.saveHits(hitDtos);
+    }
+
     @GetMapping("/stats")
     public Collection<StatsDto> getStats(@RequestParam @DateTimeFormat(pattern = PATTERN)
                                          LocalDateTime start,
                                          @RequestParam @DateTimeFormat(pattern = PATTERN)
                                          LocalDateTime end,
                                          @RequestParam(required = false) List<String> uris,
-                                         @RequestParam(required = false, defaultValue = "false") Boolean unique) {
-        return statsService.getStats(start, end, uris, unique);
+                                         @RequestParam(required = false, defaultValue = "false") Boolean unique,
+                                         @RequestParam(required = false, defaultValue = "false")
+                                         Boolean approximate) {
+        return statsService.getStats(start, end, uris, unique, approximate);
+    }
+
+    @GetMapping("/stats/top")
+    public List<StatsDto> getTopStats(@RequestParam @DateTimeFormat(pattern = PATTERN) LocalDateTime start,
+                                      @RequestParam @DateTimeFormat(pattern = PATTERN) LocalDateTime end,
+                                      @RequestParam(defaultValue = "10") @Positive @Max(1000) int n,
+                                      @RequestParam(required = false) String prefix) {
+        return statsService.getTopStats(start, end, n, prefix);
     }
 
+    @PostMapping("/stats/events")
+    public Map<Long, Long> getEventStats(@Valid @RequestBody EventStatsRequestDto request) {
+        return statsService.getEventStats(request.getStart(), request.getEnd(), request.getIds(),
+                request.isUnique());
+    }
+
+    @GetMapping("/stats/changes")
+    public StatsChangesDto getChanges(@RequestParam(defaultValue = "0") @PositiveOrZero long since,
+                                      @RequestParam(defaultValue = "1000") @Positive @Max(10000) int limit) {
+        return statsService.getChanges(since, limit);
+    }
+
+    @GetMapping(value = "/stats", produces = APPLICATION_NDJSON)
+    public void streamStats(@RequestParam @DateTimeFormat(pattern = PATTERN) LocalDateTime start,
+                            @RequestParam @DateTimeFormat(pattern = PATTERN) LocalDateTime end,
+                            @RequestParam(required = false) List<String> uris,
+                            @RequestParam(required = false, defaultValue = "false") Boolean unique,
+                            @RequestParam(required = false, defaultValue = "false") Boolean approximate,
+                            HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON);
+        OutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(StatsDto.class);
+        statsService.streamStats(start, end, uris, unique, approximate, statsDto -> {
+            try {
+                out.write(writer.writeValueAsBytes(statsDto));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
 }
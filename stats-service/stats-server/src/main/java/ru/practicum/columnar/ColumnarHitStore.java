@@ -0,0 +1,146 @@
+package ru.practicum.columnar;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.model.Hit;
+import ru.practicum.model.HitCount;
+import ru.practicum.repository.StatsRepository;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Component
+@ConditionalOnProperty(name = "stats.columnar.enabled", havingValue = "true")
+@DependsOn("hitSchemaMigration")
+@Slf4j
+public class ColumnarHitStore {
+
+    private static final long IPV4_MAPPED = 0xFFFFL << 32;
+
+    private final StatsRepository statsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int segmentSize;
+    private final Duration window;
+    private final int warmupFetchSize;
+    private final List<HitSegment> segments = new CopyOnWriteArrayList<>();
+
+    private HitSegment active;
+    private volatile LocalDateTime coveredFrom;
+
+    public ColumnarHitStore(StatsRepository statsRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${stats.columnar.segment-size:65536}") int segmentSize,
+                            @Value("${stats.columnar.window:24h}") Duration window,
+                            @Value("${stats.columnar.warmup-fetch-size:10000}") int warmupFetchSize) {
+        this.statsRepository = statsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.segmentSize = segmentSize;
+        this.window = window;
+        this.warmupFetchSize = warmupFetchSize;
+    }
+
+    // Выполняется до старта веб-сервера, поэтому параллельных вставок во время загрузки нет.
+    @PostConstruct
+    public void warmUp() {
+        LocalDateTime from = LocalDateTime.now().minus(window);
+        log.info("Загрузка просмотров с {} в колоночное хранилище", from);
+        transactionTemplate.executeWithoutResult(status ->
+                statsRepository.streamSince(from, warmupFetchSize, this::appendOne));
+        coveredFrom = from;
+        log.info("В колоночное хранилище загружено {} просмотров", size());
+    }
+
+    public void appendAfterCommit(List<Hit> hits) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(hits);
+                }
+            });
+        } else {
+            append(hits);
+        }
+    }
+
+    public synchronized void append(List<Hit> hits) {
+        hits.forEach(this::appendOne);
+    }
+
+    public boolean covers(LocalDateTime start) {
+        LocalDateTime covered = coveredFrom;
+        return covered != null && !start.isBefore(covered);
+    }
+
+    public List<HitCount> findStats(LocalDateTime start, LocalDateTime endExclusive, List<Integer> uriIds,
+                                    boolean unique) {
+        BitSet uriFilter = null;
+        if (uriIds != null) {
+            uriFilter = new BitSet();
+            uriIds.forEach(uriFilter::set);
+        }
+        long from = toMicros(start);
+        long to = toMicros(endExclusive);
+        LongLongMap counts = new LongLongMap(1024);
+        VisitorSet visitors = unique ? new VisitorSet(1024) : null;
+        for (HitSegment segment : segments) {
+            segment.scan(from, to, uriFilter, counts, visitors);
+        }
+
+        List<HitCount> result = new ArrayList<>(counts.size());
+        counts.forEach((key, hits) -> result.add(new HitCount((int) (key >>> 32), (int) key, hits)));
+        result.sort(Comparator.comparing(HitCount::hits).reversed());
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.columnar.evict-interval-ms:60000}")
+    public synchronized void evict() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(window);
+        long cutoffMicros = toMicros(cutoff);
+        segments.removeIf(segment -> segment != active && segment.maxTimestamp() < cutoffMicros);
+        if (coveredFrom != null && coveredFrom.isBefore(cutoff)) {
+            coveredFrom = cutoff;
+        }
+    }
+
+    public long size() {
+        return segments.stream().mapToLong(HitSegment::size).sum();
+    }
+
+    private synchronized void appendOne(Hit hit) {
+        if (active == null || active.isFull()) {
+            active = new HitSegment(segmentSize);
+            segments.add(active);
+        }
+        byte[] address = hit.getIp().getAddress();
+        long high = 0;
+        long low;
+        if (address.length == 4) {
+            low = IPV4_MAPPED | (ByteBuffer.wrap(address).getInt() & 0xFFFFFFFFL);
+        } else {
+            ByteBuffer buffer = ByteBuffer.wrap(address);
+            high = buffer.getLong();
+            low = buffer.getLong();
+        }
+        active.append(toMicros(hit.getTimestamp()), hit.getAppId(), hit.getUriId(), high, low);
+    }
+
+    private long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.columnar;
+
+import java.util.BitSet;
+
+final class HitSegment {
+
+    private final long[] timestamps;
+    private final int[] appIds;
+    private final int[] uriIds;
+    private final long[] ipHigh;
+    private final long[] ipLow;
+
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private volatile int size;
+
+    HitSegment(int capacity) {
+        this.timestamps = new long[capacity];
+        this.appIds = new int[capacity];
+        this.uriIds = new int[capacity];
+        this.ipHigh = new long[capacity];
+        this.ipLow = new long[capacity];
+    }
+
+    // Один писатель под блокировкой хранилища; читатели видят строки до size благодаря volatile-записи size.
+    boolean append(long timestamp, int appId, int uriId, long high, long low) {
+        int i = size;
+        if (i == timestamps.length) {
+            return false;
+        }
+        timestamps[i] = timestamp;
+        appIds[i] = appId;
+        uriIds[i] = uriId;
+        ipHigh[i] = high;
+        ipLow[i] = low;
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        size = i + 1;
+        return true;
+    }
+
+    boolean isFull() {
+        return size == timestamps.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long maxTimestamp() {
+        int n = size;
+        return n == 0 ? Long.MIN_VALUE : maxTimestamp;
+    }
+
+    void scan(long from, long to, BitSet uriFilter, LongLongMap counts, VisitorSet visitors) {
+        int n = size;
+        if (n == 0 || maxTimestamp < from || minTimestamp >= to) {
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            long timestamp = timestamps[i];
+            if (timestamp < from || timestamp >= to) {
+                continue;
+            }
+            int uriId = uriIds[i];
+            if (uriFilter != null && !uriFilter.get(uriId)) {
+                continue;
+            }
+            long key = ((long) appIds[i] << 32) | (uriId & 0xFFFFFFFFL);
+            if (visitors == null || visitors.add(key, ipHigh[i], ipLow[i])) {
+                counts.addTo(key, 1);
+            }
+        }
+    }
+}
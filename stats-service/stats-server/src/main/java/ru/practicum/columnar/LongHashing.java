@@ -0,0 +1,16 @@
+package ru.practicum.columnar;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+class LongHashing {
+
+    int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+}
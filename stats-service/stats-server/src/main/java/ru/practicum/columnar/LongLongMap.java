@@ -0,0 +1,74 @@
+package ru.practicum.columnar;
+
+import java.util.Arrays;
+
+final class LongLongMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    LongLongMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    void addTo(long key, long delta) {
+        int i = LongHashing.mix(key) & mask;
+        while (true) {
+            long current = keys[i];
+            if (current == key) {
+                values[i] += delta;
+                return;
+            }
+            if (current == EMPTY) {
+                keys[i] = key;
+                values[i] = delta;
+                if (++size * 2 > keys.length) {
+                    grow();
+                }
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(Entry consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                addTo(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    @FunctionalInterface
+    interface Entry {
+        void accept(long key, long value);
+    }
+}
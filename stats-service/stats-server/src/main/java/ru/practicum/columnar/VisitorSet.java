@@ -0,0 +1,63 @@
+package ru.practicum.columnar;
+
+import java.util.Arrays;
+
+// Множество пар (ключ app/uri, IP-адрес) для подсчёта уникальных посетителей. Адрес хранится целиком,
+// двумя long (IPv4 - в виде IPv4-mapped IPv6), поэтому подсчёт точный и для IPv6.
+final class VisitorSet {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] ipHighs;
+    private long[] ipLows;
+    private int mask;
+    private int size;
+
+    VisitorSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    // key никогда не равен EMPTY: это ключ app/uri из положительных id.
+    boolean add(long key, long ipHigh, long ipLow) {
+        int i = LongHashing.mix((key * 31 + ipHigh) * 31 + ipLow) & mask;
+        while (true) {
+            long current = keys[i];
+            if (current == EMPTY) {
+                keys[i] = key;
+                ipHighs[i] = ipHigh;
+                ipLows[i] = ipLow;
+                if (++size * 2 > keys.length) {
+                    grow();
+                }
+                return true;
+            }
+            if (current == key && ipHighs[i] == ipHigh && ipLows[i] == ipLow) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldIpHighs = ipHighs;
+        long[] oldIpLows = ipLows;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                add(oldKeys[i], oldIpHighs[i], oldIpLows[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        ipHighs = new long[capacity];
+        ipLows = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+}
@@ -2,29 +2,101 @@ package ru.practicum.mapper;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.dto.HitDto;
+import ru.practicum.exception.ValidationException;
 import ru.practicum.model.Hit;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.regex.Pattern;
 
 @UtilityClass
 public class HitMapper {
 
-    public HitDto toHitDto(Hit hit) {
+    // Тот же шаблон используется в SQL при заполнении event_id для старых uri.
+    public static final Pattern EVENT_URI = Pattern.compile("^/events/[1-9][0-9]{0,17}$");
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    public HitDto toHitDto(Hit hit, String app, String uri) {
         return HitDto.builder()
                 .id(hit.getId())
-                .app(hit.getApp())
-                .uri(hit.getUri())
-                .ip(hit.getIp())
+                .app(app)
+                .uri(uri)
+                .ip(hit.getIp().getHostAddress())
                 .timestamp(hit.getTimestamp())
                 .build();
     }
 
-    public Hit toHit(HitDto hitDto) {
+    public Hit toHit(HitDto hitDto, Integer appId, Integer uriId) {
         return Hit.builder()
-                .app(hitDto.getApp())
-                .uri(hitDto.getUri())
-                .ip(hitDto.getIp())
+                .appId(appId)
+                .uriId(uriId)
+                .ip(toInetAddress(hitDto.getIp()))
                 .timestamp(hitDto.getTimestamp() != null ? hitDto.getTimestamp() : LocalDateTime.now())
                 .build();
     }
+
+    // id события для uri вида /events/{id}, иначе null.
+    public Long toEventId(String uri) {
+        return EVENT_URI.matcher(uri).matches() ? Long.parseLong(uri, 8, uri.length(), 10) : null;
+    }
+
+    // InetAddress.getByName для строки, не являющейся литералом адреса, пошёл бы в DNS прямо на пути записи,
+    // поэтому IPv4 разбирается вручную, а IPv6 передаётся в квадратных скобках - так разбирается только литерал.
+    // До перехода на inet сервер принимал в ip любую строку, поэтому строка, не являющаяся адресом,
+    // не отклоняется, а отображается в адрес из зарезервированного префикса 100::/64 (RFC 6666) по MD5 строки:
+    // одинаковые строки остаются одним посетителем. Так же старые строки переводит миграция схемы
+    // (HitSchemaRepository).
+    public InetAddress toInetAddress(String ip) {
+        if (ip == null || ip.isBlank()) {
+            throw new ValidationException("Не указан IP-адрес");
+        }
+        if (IPV4.matcher(ip).matches()) {
+            InetAddress address = toIpv4Address(ip);
+            if (address != null) {
+                return address;
+            }
+        } else if (ip.indexOf(':') >= 0) {
+            try {
+                return InetAddress.getByName(ip.startsWith("[") ? ip : "[" + ip + "]");
+            } catch (UnknownHostException e) {
+                // не литерал адреса, отображается ниже
+            }
+        }
+        return toDiscardAddress(ip);
+    }
+
+    // null, если октет больше 255.
+    private InetAddress toIpv4Address(String ip) {
+        String[] octets = ip.split("\\.");
+        byte[] address = new byte[4];
+        for (int i = 0; i < address.length; i++) {
+            int octet = Integer.parseInt(octets[i]);
+            if (octet > 255) {
+                return null;
+            }
+            address[i] = (byte) octet;
+        }
+        try {
+            return InetAddress.getByAddress(address);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private InetAddress toDiscardAddress(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            byte[] address = new byte[16];
+            address[0] = 0x01;
+            System.arraycopy(digest, 0, address, 8, 8);
+            return InetAddress.getByAddress(address);
+        } catch (NoSuchAlgorithmException | UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -6,7 +6,10 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
+import java.net.InetAddress;
 import java.time.LocalDateTime;
 
 @Entity
@@ -20,11 +23,14 @@ public class Hit {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
 
-    String app;
+    @Column(name = "app_id")
+    Integer appId;
 
-    String uri;
+    @Column(name = "uri_id")
+    Integer uriId;
 
-    String ip;
+    @JdbcTypeCode(SqlTypes.INET)
+    InetAddress ip;
 
     LocalDateTime timestamp;
 }
@@ -0,0 +1,4 @@
+package ru.practicum.model;
+
+public record HitChange(Integer appId, Integer uriId, Long hits, Long newUnique, Long lastId) {
+}
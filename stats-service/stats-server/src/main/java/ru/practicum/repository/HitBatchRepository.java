@@ -0,0 +1,16 @@
+package ru.practicum.repository;
+
+import ru.practicum.model.Hit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface HitBatchRepository {
+
+    void saveAllBatch(List<Hit> hits);
+
+    void insertBatch(List<Hit> hits);
+
+    void streamSince(LocalDateTime from, int fetchSize, Consumer<Hit> consumer);
+}
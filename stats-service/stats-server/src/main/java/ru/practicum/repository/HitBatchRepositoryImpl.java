@@ -0,0 +1,67 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.mapper.HitMapper;
+import ru.practicum.model.Hit;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class HitBatchRepositoryImpl implements HitBatchRepository {
+
+    private static final String INSERT_HIT = "INSERT INTO hits (app_id, uri_id, ip, timestamp) VALUES (?, ?, ?::inet, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HitCopyLoader hitCopyLoader;
+
+    @Value("${stats.ingest.jdbc-batch-size:500}")
+    private int batchSize;
+
+    @Value("${stats.ingest.copy-enabled:true}")
+    private boolean copyEnabled;
+
+    @Value("${stats.ingest.copy-threshold:50}")
+    private int copyThreshold;
+
+    @Override
+    public void saveAllBatch(List<Hit> hits) {
+        if (copyEnabled && hits.size() >= copyThreshold && hitCopyLoader.isSupported()) {
+            hitCopyLoader.copy(hits);
+        } else {
+            insertBatch(hits);
+        }
+    }
+
+    @Override
+    public void insertBatch(List<Hit> hits) {
+        jdbcTemplate.batchUpdate(INSERT_HIT, hits, batchSize, (ps, hit) -> {
+            ps.setInt(1, hit.getAppId());
+            ps.setInt(2, hit.getUriId());
+            ps.setString(3, hit.getIp().getHostAddress());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
+    }
+
+    @Override
+    public void streamSince(LocalDateTime from, int fetchSize, Consumer<Hit> consumer) {
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement("SELECT id, app_id, uri_id, ip, timestamp FROM hits WHERE timestamp >= ?");
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            return statement;
+        }, rs -> {
+            consumer.accept(Hit.builder()
+                    .id(rs.getLong("id"))
+                    .appId(rs.getInt("app_id"))
+                    .uriId(rs.getInt("uri_id"))
+                    .ip(HitMapper.toInetAddress(rs.getString("ip")))
+                    .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                    .build());
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.Hit;
+import ru.practicum.model.HitChange;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+@Repository
+@RequiredArgsConstructor
+public class HitChangeRepository {
+
+    private static final long CHANGES_LOCK_KEY = 0x68697463686e67L;
+
+    // last_seen обновляется не чаще раза в сутки на посетителя; xmax = 0 только у вставленных строк,
+    // поэтому новым посетителем считается лишь вставка.
+    private static final String INSERT_VISITORS = """
+            INSERT INTO hit_visitors AS h (app_id, uri_id, ip, last_seen)
+            SELECT v.app_id, v.uri_id, v.ip::inet, CURRENT_DATE
+            FROM unnest(?::integer[], ?::integer[], ?::text[]) AS v(app_id, uri_id, ip)
+            ON CONFLICT (app_id, uri_id, ip) DO UPDATE SET last_seen = EXCLUDED.last_seen
+            WHERE h.last_seen < EXCLUDED.last_seen
+            RETURNING h.app_id, h.uri_id, h.xmax = 0 AS inserted
+            """;
+
+    private static final String BACKFILL_VISITORS = """
+            INSERT INTO hit_visitors (app_id, uri_id, ip, last_seen)
+            SELECT app_id, uri_id, ip, MAX(timestamp)::date FROM hits
+            WHERE NOT EXISTS (SELECT 1 FROM hit_visitors)
+            GROUP BY app_id, uri_id, ip
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String INSERT_CHANGE = """
+            INSERT INTO hit_changes (app_id, uri_id, hits, new_unique)
+            VALUES (:appId, :uriId, :hits, :newUnique)
+            """;
+
+    private static final String FIND_CHANGES = """
+            SELECT app_id, uri_id, SUM(hits) AS hits, SUM(new_unique) AS new_unique, MAX(id) AS last_id
+            FROM (SELECT * FROM hit_changes WHERE id > :since ORDER BY id LIMIT :limit) AS batch
+            GROUP BY app_id, uri_id
+            ORDER BY hits DESC
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Курсор - id записи в hit_changes. Записи вставляются под advisory-блокировкой, которая держится до коммита,
+    // поэтому порядок id совпадает с порядком коммитов и читатель никогда не перескочит незакоммиченную запись.
+    public void record(List<Hit> hits) {
+        Map<AppUri, long[]> counts = new TreeMap<>(AppUri.ORDER);
+        TreeSet<Visitor> visitors = new TreeSet<>(Visitor.ORDER);
+        for (Hit hit : hits) {
+            AppUri key = new AppUri(hit.getAppId(), hit.getUriId());
+            counts.computeIfAbsent(key, k -> new long[2])[0]++;
+            visitors.add(new Visitor(key, hit.getIp().getAddress(), hit.getIp().getHostAddress()));
+        }
+
+        jdbcTemplate.getJdbcOperations().query(con -> {
+            var statement = con.prepareStatement(INSERT_VISITORS);
+            statement.setArray(1, con.createArrayOf("integer",
+                    visitors.stream().map(visitor -> visitor.key().appId()).toArray()));
+            statement.setArray(2, con.createArrayOf("integer",
+                    visitors.stream().map(visitor -> visitor.key().uriId()).toArray()));
+            statement.setArray(3, con.createArrayOf("text",
+                    visitors.stream().map(Visitor::ip).toArray()));
+            return statement;
+        }, rs -> {
+            if (rs.getBoolean("inserted")) {
+                counts.get(new AppUri(rs.getInt("app_id"), rs.getInt("uri_id")))[1]++;
+            }
+        });
+
+        lockChanges();
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, counts.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("appId", entry.getKey().appId())
+                        .addValue("uriId", entry.getKey().uriId())
+                        .addValue("hits", entry.getValue()[0])
+                        .addValue("newUnique", entry.getValue()[1]))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    public List<HitChange> findChanges(long since, int limit) {
+        return jdbcTemplate.query(FIND_CHANGES, new MapSqlParameterSource()
+                        .addValue("since", since)
+                        .addValue("limit", limit),
+                (rs, rowNum) -> new HitChange(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getLong("hits"),
+                        rs.getLong("new_unique"), rs.getLong("last_id")));
+    }
+
+    public Optional<Long> findOldestId() {
+        return Optional.ofNullable(jdbcTemplate.getJdbcOperations()
+                .queryForObject("SELECT MIN(id) FROM hit_changes", Long.class));
+    }
+
+    public long findLatestId() {
+        Long latest = jdbcTemplate.getJdbcOperations()
+                .queryForObject("SELECT COALESCE(MAX(id), 0) FROM hit_changes", Long.class);
+        return latest == null ? 0 : latest;
+    }
+
+    // Последняя запись не удаляется никогда: по ней читатель со старым курсором понимает, что часть изменений пропала.
+    public int prune(LocalDateTime cutoff) {
+        return jdbcTemplate.update("""
+                DELETE FROM hit_changes
+                WHERE created_at < :cutoff AND id < (SELECT MAX(id) FROM hit_changes)
+                """, new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff)));
+    }
+
+    // Посетитель, не появлявшийся с cutoff, при возвращении снова будет учтён в new_unique, так что сумма
+    // приращений по uri растёт быстрее числа уникальных посетителей; потребитель ленты периодически пересчитывает.
+    public int pruneVisitors(LocalDate cutoff) {
+        return jdbcTemplate.update("DELETE FROM hit_visitors WHERE last_seen < :cutoff",
+                new MapSqlParameterSource("cutoff", cutoff));
+    }
+
+    // Первый запуск ленты на базе с историей: посетители засеваются из hits, чтобы уже виденные не попали
+    // в new_unique. Историю лента не содержит - читатель с курсором 0 получает reset и пересчитывает счётчики
+    // по /stats. Возвращает число засеянных посетителей.
+    public int backfillVisitors() {
+        return jdbcTemplate.getJdbcOperations().update(BACKFILL_VISITORS);
+    }
+
+    private void lockChanges() {
+        jdbcTemplate.getJdbcOperations().query("SELECT pg_advisory_xact_lock(?)", rs -> {
+        }, CHANGES_LOCK_KEY);
+    }
+
+    private record AppUri(int appId, int uriId) {
+
+        static final Comparator<AppUri> ORDER = Comparator.comparingInt(AppUri::appId)
+                .thenComparingInt(AppUri::uriId);
+    }
+
+    private record Visitor(AppUri key, byte[] address, String ip) {
+
+        static final Comparator<Visitor> ORDER = Comparator.comparing(Visitor::key, AppUri.ORDER)
+                .thenComparing(Visitor::address, Arrays::compareUnsigned);
+    }
+}
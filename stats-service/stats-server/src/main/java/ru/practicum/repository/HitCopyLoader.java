@@ -0,0 +1,68 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.Hit;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class HitCopyLoader {
+
+    private static final String COPY_HITS = "COPY hits (app_id, uri_id, ip, timestamp) FROM STDIN";
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean supported;
+
+    public boolean isSupported() {
+        Boolean result = supported;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> con.isWrapperFor(PGConnection.class));
+            supported = result;
+        }
+        return Boolean.TRUE.equals(result);
+    }
+
+    // Текстовый формат COPY: строки "app_id\turi_id\tip\ttimestamp", отправляемые кусками по BUFFER_SIZE.
+    public long copy(List<Hit> hits) {
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            CopyIn copyIn = con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_HITS);
+            try {
+                StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+                for (Hit hit : hits) {
+                    buffer.append(hit.getAppId()).append('\t')
+                            .append(hit.getUriId()).append('\t')
+                            .append(hit.getIp().getHostAddress()).append('\t')
+                            .append(TIMESTAMP_FORMAT.format(hit.getTimestamp())).append('\n');
+                    if (buffer.length() >= BUFFER_SIZE) {
+                        write(copyIn, buffer);
+                    }
+                }
+                write(copyIn, buffer);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+        return copied == null ? 0 : copied;
+    }
+
+    private void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
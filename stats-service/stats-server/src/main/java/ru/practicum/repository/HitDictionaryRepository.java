@@ -0,0 +1,175 @@
+package ru.practicum.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.mapper.HitMapper;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Repository
+public class HitDictionaryRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Dictionary apps;
+    private final Dictionary uris;
+
+    public HitDictionaryRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                                   HitUriIndex hitUriIndex,
+                                   @Value("${stats.dictionary.cache-size:100000}") long cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.apps = new Dictionary("hit_apps", "name", cacheSize,
+                "INSERT INTO hit_apps (name) VALUES (:value) ON CONFLICT (name) DO NOTHING",
+                value -> new MapSqlParameterSource("value", value), loaded -> {
+                });
+        // id события хранится в словаре рядом с uri, чтобы запросы по событиям обходились без строк.
+        this.uris = new Dictionary("hit_uris", "uri", cacheSize,
+                "INSERT INTO hit_uris (uri, event_id) VALUES (:value, :eventId) ON CONFLICT (uri) DO NOTHING",
+                value -> new MapSqlParameterSource("value", value)
+                        .addValue("eventId", HitMapper.toEventId(value)), hitUriIndex::addAll);
+    }
+
+    public Map<String, Integer> resolveAppIds(Collection<String> names) {
+        return apps.resolve(names);
+    }
+
+    public Map<String, Integer> resolveUriIds(Collection<String> values) {
+        return uris.resolve(values);
+    }
+
+    public Map<String, Integer> findUriIds(Collection<String> values) {
+        return uris.findIds(values);
+    }
+
+    public Map<Integer, String> findAppNames(Collection<Integer> ids) {
+        return apps.findValues(ids);
+    }
+
+    public Map<Integer, String> findUris(Collection<Integer> ids) {
+        return uris.findValues(ids);
+    }
+
+    // uri_id -> id события; одному событию может соответствовать не больше одного uri.
+    public Map<Integer, Long> findUriIdsByEventIds(long[] eventIds) {
+        Map<Integer, Long> result = new HashMap<>();
+        if (eventIds.length == 0) {
+            return result;
+        }
+        jdbcTemplate.query("SELECT id, event_id FROM hit_uris WHERE event_id = ANY(CAST(:eventIds AS bigint[]))",
+                new MapSqlParameterSource("eventIds", SqlArrays.toBigintArray(eventIds)), rs -> {
+                    result.put(rs.getInt("id"), rs.getLong("event_id"));
+                });
+        return result;
+    }
+
+    private final class Dictionary {
+
+        private final String table;
+        private final String column;
+        private final Cache<String, Integer> ids;
+        private final Cache<Integer, String> values;
+        private final String insertSql;
+        private final Function<String, MapSqlParameterSource> insertParams;
+        private final Consumer<Map<String, Integer>> onLoaded;
+
+        private Dictionary(String table, String column, long cacheSize, String insertSql,
+                           Function<String, MapSqlParameterSource> insertParams,
+                           Consumer<Map<String, Integer>> onLoaded) {
+            this.table = table;
+            this.column = column;
+            this.insertSql = insertSql;
+            this.insertParams = insertParams;
+            this.onLoaded = onLoaded;
+            this.ids = Caffeine.newBuilder().maximumSize(cacheSize).build();
+            this.values = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        }
+
+        // Новые значения вставляются в порядке сортировки, чтобы параллельные пакеты не блокировали друг друга
+        // крест-накрест. В кэш id попадают только после коммита: откаченная вставка не должна в нём остаться.
+        Map<String, Integer> resolve(Collection<String> keys) {
+            Map<String, Integer> result = new HashMap<>(ids.getAllPresent(keys));
+            TreeSet<String> missing = new TreeSet<>(keys);
+            missing.removeAll(result.keySet());
+            if (missing.isEmpty()) {
+                return result;
+            }
+
+            jdbcTemplate.batchUpdate(insertSql, missing.stream()
+                    .map(insertParams)
+                    .toArray(MapSqlParameterSource[]::new));
+            Map<String, Integer> loaded = select(missing);
+            result.putAll(loaded);
+
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        cache(loaded);
+                    }
+                });
+            } else {
+                cache(loaded);
+            }
+            return result;
+        }
+
+        Map<String, Integer> findIds(Collection<String> keys) {
+            Map<String, Integer> result = new HashMap<>(ids.getAllPresent(keys));
+            TreeSet<String> missing = new TreeSet<>(keys);
+            missing.removeAll(result.keySet());
+            if (!missing.isEmpty()) {
+                Map<String, Integer> loaded = select(missing);
+                cache(loaded);
+                result.putAll(loaded);
+            }
+            return result;
+        }
+
+        Map<Integer, String> findValues(Collection<Integer> keys) {
+            Map<Integer, String> result = new HashMap<>(values.getAllPresent(keys));
+            List<Integer> missing = keys.stream()
+                    .filter(id -> !result.containsKey(id))
+                    .distinct()
+                    .toList();
+            if (!missing.isEmpty()) {
+                jdbcTemplate.query("SELECT id, %s FROM %s WHERE id IN (:ids)".formatted(column, table),
+                        new MapSqlParameterSource("ids", missing), rs -> {
+                            int id = rs.getInt("id");
+                            String value = rs.getString(column);
+                            values.put(id, value);
+                            ids.put(value, id);
+                            result.put(id, value);
+                        });
+            }
+            return result;
+        }
+
+        private Map<String, Integer> select(Collection<String> keys) {
+            Map<String, Integer> result = new HashMap<>();
+            jdbcTemplate.query("SELECT id, %s FROM %s WHERE %s IN (:values)".formatted(column, table, column),
+                    new MapSqlParameterSource("values", keys), rs -> {
+                        result.put(rs.getString(column), rs.getInt("id"));
+                    });
+            return result;
+        }
+
+        private void cache(Map<String, Integer> loaded) {
+            loaded.forEach((value, id) -> {
+                ids.put(value, id);
+                values.put(id, value);
+            });
+            onLoaded.accept(loaded);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class HitPartitionRepository {
+
+    public static final String MONTH_PREFIX = "hits_p";
+    public static final String LEGACY_PREFIX = "hits_until_";
+    public static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String CREATE_PARTITIONED_HITS = """
+            CREATE TABLE hits (
+              id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+              app_id INTEGER NOT NULL,
+              uri_id INTEGER NOT NULL,
+              ip INET NOT NULL,
+              timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL
+            ) PARTITION BY RANGE (timestamp)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('hits'))",
+                Boolean.class));
+    }
+
+    public Optional<LocalDateTime> findMaxTimestamp() {
+        Timestamp max = jdbcTemplate.queryForObject("SELECT MAX(timestamp) FROM hits", Timestamp.class);
+        return Optional.ofNullable(max).map(Timestamp::toLocalDateTime);
+    }
+
+    public void convertToPartitioned(YearMonth legacyUntil) {
+        String legacy = LEGACY_PREFIX + legacyUntil.format(MONTH_FORMAT);
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM hits", Long.class);
+
+        jdbcTemplate.execute("ALTER TABLE hits RENAME TO " + legacy);
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("DELETE FROM " + legacy + " WHERE timestamp IS NULL");
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " ALTER COLUMN timestamp SET NOT NULL");
+        jdbcTemplate.execute(CREATE_PARTITIONED_HITS);
+        jdbcTemplate.execute("ALTER TABLE hits ALTER COLUMN id RESTART WITH " + (maxId + 1));
+        jdbcTemplate.execute("ALTER TABLE hits ATTACH PARTITION " + legacy
+                + " FOR VALUES FROM (MINVALUE) TO ('" + legacyUntil.atDay(1).atStartOfDay() + "')");
+    }
+
+    public void createDefaultPartitionAndIndexes() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS hits_default PARTITION OF hits DEFAULT");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS ix_hits_timestamp ON hits (timestamp)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS ix_hits_uri_id_timestamp ON hits (uri_id, timestamp)");
+    }
+
+    public List<String> findPartitionNames() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass('hits')
+                """, String.class);
+    }
+
+    // Просмотры с датой за пределами созданных партиций попадают в hits_default, и тогда CREATE TABLE ...
+    // PARTITION OF за этот месяц падает. Такие строки сначала переносятся в отдельную таблицу, которая затем
+    // подключается партицией. hits_default блокируется от записи до коммита, чтобы новые строки за этот месяц
+    // не появились в ней между переносом и подключением. Возвращает число перенесённых строк.
+    public int createMonthPartition(YearMonth month) {
+        String name = MONTH_PREFIX + month.format(MONTH_FORMAT);
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        String bounds = " FOR VALUES FROM ('" + from.toLocalDateTime() + "') TO ('" + to.toLocalDateTime() + "')";
+
+        jdbcTemplate.execute("LOCK TABLE hits_default IN EXCLUSIVE MODE");
+        Boolean hasDefaultRows = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM hits_default WHERE timestamp >= ? AND timestamp < ?)",
+                Boolean.class, from, to);
+        if (!Boolean.TRUE.equals(hasDefaultRows)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF hits" + bounds);
+            return 0;
+        }
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE hits INCLUDING DEFAULTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM hits_default"
+                + " WHERE timestamp >= ? AND timestamp < ? RETURNING *)"
+                + " INSERT INTO " + name + " SELECT * FROM moved", from, to);
+        jdbcTemplate.execute("ALTER TABLE hits ATTACH PARTITION " + name + bounds);
+        return moved;
+    }
+
+    public void detachPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE hits DETACH PARTITION " + name);
+    }
+
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("DROP TABLE " + name);
+    }
+}
@@ -0,0 +1,226 @@
+package ru.practicum.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.StatsDto;
+import ru.practicum.model.Hit;
+import ru.practicum.model.HitCount;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.service.StatsRange;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Repository
+public class HitRollupRepository {
+
+    private static final String UPSERT_ROLLUP = """
+            INSERT INTO hit_rollups (granularity, bucket_start, app_id, uri_id, hits)
+            VALUES (:granularity, :bucketStart, :appId, :uriId, :hits)
+            ON CONFLICT (granularity, bucket_start, app_id, uri_id)
+            DO UPDATE SET hits = hit_rollups.hits + EXCLUDED.hits
+            """;
+
+    private static final String BACKFILL_ROLLUP = """
+            INSERT INTO hit_rollups (granularity, bucket_start, app_id, uri_id, hits)
+            SELECT :granularity, date_trunc('%s', timestamp), app_id, uri_id, COUNT(*)
+            FROM hits
+            WHERE timestamp IS NOT NULL AND NOT EXISTS (SELECT 1 FROM hit_rollups WHERE granularity = :granularity)
+            GROUP BY 2, 3, 4
+            """;
+
+    private static final RowMapper<StatsDto> STATS_ROW_MAPPER = (rs, rowNum) -> StatsDto.builder()
+            .app(rs.getString("app"))
+            .uri(rs.getString("uri"))
+            .hits(rs.getLong("hits"))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    public HitRollupRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                               @Value("${stats.streaming.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        streaming.setFetchSize(fetchSize);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    public void increment(List<Hit> hits) {
+        Map<RollupKey, Long> counts = new TreeMap<>(RollupKey.ORDER);
+        for (Hit hit : hits) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                RollupKey key = new RollupKey(granularity, granularity.floor(hit.getTimestamp()),
+                        hit.getAppId(), hit.getUriId());
+                counts.merge(key, 1L, Long::sum);
+            }
+        }
+
+        MapSqlParameterSource[] batch = counts.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("granularity", entry.getKey().granularity().name())
+                        .addValue("bucketStart", Timestamp.valueOf(entry.getKey().bucketStart()))
+                        .addValue("appId", entry.getKey().appId())
+                        .addValue("uriId", entry.getKey().uriId())
+                        .addValue("hits", entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPSERT_ROLLUP, batch);
+    }
+
+    public void backfillFromHits() {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            jdbcTemplate.update(BACKFILL_ROLLUP.formatted(granularity.name().toLowerCase()),
+                    new MapSqlParameterSource("granularity", granularity.name()));
+        }
+    }
+
+    public List<StatsDto> findStats(List<StatsRange> ranges, List<Integer> uriIds) {
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+        StatsQuery query = buildStatsQuery(ranges, uriIds, null, null);
+        return jdbcTemplate.query(query.sql(), query.params(), STATS_ROW_MAPPER);
+    }
+
+    // Postgres выполняет ORDER BY ... LIMIT через top-N heapsort: в памяти держится только куча из limit строк,
+    // а имена из словарей подтягиваются лишь для попавших в неё id.
+    public List<StatsDto> findTopStats(List<StatsRange> ranges, String uriPrefix, int limit) {
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+        StatsQuery query = buildStatsQuery(ranges, null, uriPrefix, limit);
+        return jdbcTemplate.query(query.sql(), query.params(), STATS_ROW_MAPPER);
+    }
+
+    // Без подстановки имён из словарей: для вызывающих, которым нужны только id.
+    public List<HitCount> findCounts(List<StatsRange> ranges, List<Integer> uriIds) {
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+        StatsQuery query = buildTotalsQuery(ranges, uriIds, null, null);
+        return jdbcTemplate.query(query.sql(), query.params(), (rs, rowNum) ->
+                new HitCount(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getLong("hits")));
+    }
+
+    public void streamStats(List<StatsRange> ranges, List<Integer> uriIds, Consumer<StatsDto> consumer) {
+        if (ranges.isEmpty()) {
+            return;
+        }
+        StatsQuery query = buildStatsQuery(ranges, uriIds, null, null);
+        streamingJdbcTemplate.query(query.sql(), query.params(),
+                rs -> {
+                    consumer.accept(STATS_ROW_MAPPER.mapRow(rs, rs.getRow()));
+                });
+    }
+
+    // Уникальные посетители не складываются из агрегатов, поэтому считаются по hits; имена подставляются
+    // в том же запросе, и на строку результата не приходится обращений к словарям.
+    public void streamUniqueStats(LocalDateTime start, LocalDateTime endExclusive, List<Integer> uriIds,
+                                  Consumer<StatsDto> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(start))
+                .addValue("to", Timestamp.valueOf(endExclusive));
+        String uriFilter = "";
+        if (uriIds != null) {
+            params.addValue("uriIds", SqlArrays.toIntegerArray(uriIds));
+            uriFilter = " AND uri_id = ANY(CAST(:uriIds AS integer[]))";
+        }
+        String sql = """
+                SELECT a.name AS app, u.uri AS uri, totals.hits FROM (
+                SELECT app_id, uri_id, COUNT(DISTINCT ip) AS hits FROM hits
+                WHERE timestamp >= :from AND timestamp < :to%s
+                GROUP BY app_id, uri_id
+                ) AS totals
+                JOIN hit_apps a ON a.id = totals.app_id
+                JOIN hit_uris u ON u.id = totals.uri_id
+                ORDER BY totals.hits DESC
+                """.formatted(uriFilter);
+        streamingJdbcTemplate.query(sql, params,
+                rs -> {
+                    consumer.accept(STATS_ROW_MAPPER.mapRow(rs, rs.getRow()));
+                });
+    }
+
+    private StatsQuery buildStatsQuery(List<StatsRange> ranges, List<Integer> uriIds, String uriPrefix,
+                                       Integer limit) {
+        StatsQuery totals = buildTotalsQuery(ranges, uriIds, uriPrefix, limit);
+        String sql = """
+                SELECT a.name AS app, u.uri AS uri, totals.hits FROM (
+                %s
+                ) AS totals
+                JOIN hit_apps a ON a.id = totals.app_id
+                JOIN hit_uris u ON u.id = totals.uri_id
+                ORDER BY totals.hits DESC
+                """.formatted(totals.sql());
+        return new StatsQuery(sql, totals.params());
+    }
+
+    private StatsQuery buildTotalsQuery(List<StatsRange> ranges, List<Integer> uriIds, String uriPrefix,
+                                        Integer limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String uriFilter = "";
+        if (uriIds != null) {
+            params.addValue("uriIds", SqlArrays.toIntegerArray(uriIds));
+            uriFilter = " AND uri_id = ANY(CAST(:uriIds AS integer[]))";
+        } else if (uriPrefix != null && !uriPrefix.isEmpty()) {
+            params.addValue("uriPattern", escapeLike(uriPrefix) + "%");
+            uriFilter = " AND uri_id IN (SELECT id FROM hit_uris WHERE uri LIKE :uriPattern)";
+        }
+        String limitClause = "";
+        if (limit != null) {
+            params.addValue("limit", limit);
+            limitClause = "ORDER BY hits DESC LIMIT :limit";
+        }
+
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            StatsRange range = ranges.get(i);
+            params.addValue("from" + i, Timestamp.valueOf(range.from()));
+            params.addValue("to" + i, Timestamp.valueOf(range.to()));
+            if (range.isRaw()) {
+                parts.add("SELECT app_id, uri_id, COUNT(*) AS hits FROM hits WHERE timestamp >= :from%d AND timestamp < :to%d%s GROUP BY app_id, uri_id"
+                        .formatted(i, i, uriFilter));
+            } else {
+                params.addValue("granularity" + i, range.granularity().name());
+                parts.add("SELECT app_id, uri_id, hits FROM hit_rollups WHERE granularity = :granularity%d AND bucket_start >= :from%d AND bucket_start < :to%d%s"
+                        .formatted(i, i, i, uriFilter));
+            }
+        }
+
+        String sql = """
+                SELECT app_id, uri_id, SUM(hits) AS hits FROM (
+                %s
+                ) AS ranges
+                GROUP BY app_id, uri_id
+                %s
+                """.formatted(parts.stream().collect(Collectors.joining("\nUNION ALL\n")), limitClause);
+
+        return new StatsQuery(sql, params);
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private record StatsQuery(String sql, MapSqlParameterSource params) {
+    }
+
+    private record RollupKey(RollupGranularity granularity, LocalDateTime bucketStart, int appId, int uriId) {
+
+        static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::granularity)
+                .thenComparing(RollupKey::bucketStart)
+                .thenComparingInt(RollupKey::appId)
+                .thenComparingInt(RollupKey::uriId);
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.mapper.HitMapper;
+
+@Repository
+@RequiredArgsConstructor
+public class HitSchemaRepository {
+
+    private static final String CREATE_TO_INET = """
+            CREATE OR REPLACE FUNCTION pg_temp.to_inet(value TEXT) RETURNS INET AS $$
+            BEGIN
+              RETURN value::inet;
+            EXCEPTION WHEN others THEN
+              RETURN regexp_replace(substr(md5(value), 1, 16), '(.{4})(.{4})(.{4})(.{4})',
+                '100::\\1:\\2:\\3:\\4')::inet;
+            END
+            $$ LANGUAGE plpgsql
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean hasColumn(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?)
+                """, Boolean.class, table, column));
+    }
+
+    // uri вида /events/{id}, записанные до появления колонки event_id. LIKE по префиксу идёт по индексу
+    // ix_hit_uris_uri_pattern, поэтому при повторных запусках просматриваются только uri событий.
+    public void backfillEventIds() {
+        jdbcTemplate.update("""
+                UPDATE hit_uris SET event_id = substring(uri FROM 9)::bigint
+                WHERE uri LIKE '/events/%' AND event_id IS NULL AND uri ~ ?
+                """, HitMapper.EVENT_URI.pattern());
+    }
+
+    public void migrateHits() {
+        fillDictionaries("hits");
+        jdbcTemplate.execute(CREATE_TO_INET);
+        jdbcTemplate.execute("ALTER TABLE hits ADD COLUMN app_id INTEGER, ADD COLUMN uri_id INTEGER,"
+                + " ADD COLUMN ip_address INET");
+        jdbcTemplate.execute("""
+                UPDATE hits h SET app_id = a.id, uri_id = u.id, ip_address = pg_temp.to_inet(h.ip)
+                FROM hit_apps a, hit_uris u
+                WHERE a.name = h.app AND u.uri = h.uri
+                """);
+        jdbcTemplate.execute("ALTER TABLE hits DROP COLUMN app, DROP COLUMN uri, DROP COLUMN ip");
+        jdbcTemplate.execute("ALTER TABLE hits RENAME COLUMN ip_address TO ip");
+        jdbcTemplate.execute("ALTER TABLE hits ALTER COLUMN app_id SET NOT NULL, ALTER COLUMN uri_id SET NOT NULL,"
+                + " ALTER COLUMN ip SET NOT NULL");
+    }
+
+    public void migrateRollups() {
+        fillDictionaries("hit_rollups");
+        jdbcTemplate.execute("ALTER TABLE hit_rollups ADD COLUMN app_id INTEGER, ADD COLUMN uri_id INTEGER");
+        jdbcTemplate.execute("""
+                UPDATE hit_rollups r SET app_id = a.id, uri_id = u.id
+                FROM hit_apps a, hit_uris u
+                WHERE a.name = r.app AND u.uri = r.uri
+                """);
+        jdbcTemplate.execute("ALTER TABLE hit_rollups DROP CONSTRAINT pk_hit_rollups, DROP COLUMN app, DROP COLUMN uri");
+        jdbcTemplate.execute("ALTER TABLE hit_rollups ALTER COLUMN app_id SET NOT NULL, ALTER COLUMN uri_id SET NOT NULL,"
+                + " ADD CONSTRAINT pk_hit_rollups PRIMARY KEY (granularity, bucket_start, app_id, uri_id)");
+    }
+
+    // Старые скетчи построены по строковому представлению IP, поэтому их проще пересобрать с нуля.
+    public void recreateSketches() {
+        jdbcTemplate.execute("DROP TABLE hit_sketches");
+        jdbcTemplate.execute("""
+                CREATE TABLE hit_sketches (
+                  granularity VARCHAR(16) NOT NULL,
+                  bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+                  app_id INTEGER NOT NULL,
+                  uri_id INTEGER NOT NULL,
+                  registers BYTEA NOT NULL,
+                  CONSTRAINT pk_hit_sketches PRIMARY KEY (granularity, bucket_start, app_id, uri_id)
+                )
+                """);
+    }
+
+    private void fillDictionaries(String table) {
+        jdbcTemplate.execute("INSERT INTO hit_apps (name) SELECT DISTINCT app FROM " + table
+                + " ON CONFLICT (name) DO NOTHING");
+        jdbcTemplate.execute("INSERT INTO hit_uris (uri) SELECT DISTINCT uri FROM " + table
+                + " ON CONFLICT (uri) DO NOTHING");
+    }
+}
@@ -0,0 +1,262 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.StatsDto;
+import ru.practicum.mapper.HitMapper;
+import ru.practicum.model.Hit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.sketch.HyperLogLog;
+import ru.practicum.service.StatsRange;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Repository
+@RequiredArgsConstructor
+public class HitSketchRepository {
+
+    public static final List<RollupGranularity> GRANULARITIES = List.of(RollupGranularity.HOUR, RollupGranularity.DAY);
+
+    // Ключи передаются четырьмя массивами через unnest: число параметров не зависит от числа ключей,
+    // и сброс скетчей за целые сутки не упирается в предел 32767 параметров на запрос.
+    private static final String KEYS = """
+            unnest(?::varchar[], ?::timestamp[], ?::integer[], ?::integer[])
+                AS k(granularity, bucket_start, app_id, uri_id)""";
+
+    private static final String INSERT_EMPTY_SKETCHES = """
+            INSERT INTO hit_sketches (granularity, bucket_start, app_id, uri_id, registers)
+            SELECT k.granularity, k.bucket_start, k.app_id, k.uri_id, ?
+            FROM %s
+            ON CONFLICT (granularity, bucket_start, app_id, uri_id) DO NOTHING
+            """.formatted(KEYS);
+
+    private static final String LOCK_SKETCHES = """
+            SELECT s.granularity, s.bucket_start, s.app_id, s.uri_id, s.registers
+            FROM hit_sketches s
+            JOIN %s ON s.granularity = k.granularity AND s.bucket_start = k.bucket_start
+                AND s.app_id = k.app_id AND s.uri_id = k.uri_id
+            ORDER BY s.granularity, s.bucket_start, s.app_id, s.uri_id
+            FOR UPDATE OF s
+            """.formatted(KEYS);
+
+    private static final String UPDATE_SKETCHES = """
+            UPDATE hit_sketches s SET registers = v.registers
+            FROM unnest(?::varchar[], ?::timestamp[], ?::integer[], ?::integer[], ?::bytea[])
+                AS v(granularity, bucket_start, app_id, uri_id, registers)
+            WHERE s.granularity = v.granularity AND s.bucket_start = v.bucket_start
+                AND s.app_id = v.app_id AND s.uri_id = v.uri_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final HitDictionaryRepository hitDictionaryRepository;
+
+    @Value("${stats.sketches.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${stats.sketches.hour-retention:30d}")
+    private Duration hourRetention;
+
+    public void merge(List<Hit> hits) {
+        LocalDateTime hourCutoff = hourCutoff();
+        Map<SketchKey, HyperLogLog> sketches = new TreeMap<>(SketchKey.ORDER);
+        for (Hit hit : hits) {
+            addHit(sketches, hourCutoff, hit.getTimestamp(), hit.getAppId(), hit.getUriId(),
+                    hit.getIp().getAddress());
+        }
+        save(sketches);
+    }
+
+    // Ключи идут частями по chunkSize в общем порядке SketchKey.ORDER: блокировки строк берутся в одном
+    // порядке во всех транзакциях и держатся до коммита, поэтому деление на части не приводит к взаимоблокировкам.
+    public void save(Map<SketchKey, HyperLogLog> sketches) {
+        List<SketchKey> keys = new ArrayList<>(sketches.keySet());
+        keys.sort(SketchKey.ORDER);
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            saveChunk(keys.subList(from, Math.min(from + chunkSize, keys.size())), sketches);
+        }
+    }
+
+    // Удаляет часовые скетчи старше срока хранения; запросы за такие часы считаются по сырым хитам.
+    public int pruneHours(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM hit_sketches WHERE granularity = :granularity"
+                + " AND bucket_start < :cutoff", new MapSqlParameterSource()
+                .addValue("granularity", RollupGranularity.HOUR.name())
+                .addValue("cutoff", Timestamp.valueOf(cutoff)));
+    }
+
+    // Начало хранимых часовых скетчей; null - хранятся без ограничения срока.
+    public LocalDateTime hourCutoff() {
+        if (hourRetention.isZero() || hourRetention.isNegative()) {
+            return null;
+        }
+        return RollupGranularity.HOUR.floor(LocalDateTime.now().minus(hourRetention));
+    }
+
+    public List<StatsDto> findUniqueStats(List<StatsRange> ranges, List<Integer> uriIds) {
+        boolean filterUris = uriIds != null;
+        LocalDateTime hourCutoff = hourCutoff();
+        Map<AppUri, HyperLogLog> result = new HashMap<>();
+
+        for (StatsRange range : ranges) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("from", Timestamp.valueOf(range.from()))
+                    .addValue("to", Timestamp.valueOf(range.to()));
+            String uriFilter = "";
+            if (filterUris) {
+                params.addValue("uriIds", SqlArrays.toIntegerArray(uriIds));
+                uriFilter = " AND uri_id = ANY(CAST(:uriIds AS integer[]))";
+            }
+
+            if (range.isRaw() || !GRANULARITIES.contains(range.granularity())
+                    || isPrunedHour(range.granularity(), range.from(), hourCutoff)) {
+                jdbcTemplate.query("SELECT app_id, uri_id, ip FROM hits WHERE timestamp >= :from AND timestamp < :to"
+                        + uriFilter, params, rs -> {
+                            result.computeIfAbsent(new AppUri(rs.getInt("app_id"), rs.getInt("uri_id")),
+                                    k -> new HyperLogLog()).add(toAddress(rs.getString("ip")));
+                        });
+            } else {
+                params.addValue("granularity", range.granularity().name());
+                jdbcTemplate.query("SELECT app_id, uri_id, registers FROM hit_sketches WHERE granularity = :granularity"
+                        + " AND bucket_start >= :from AND bucket_start < :to" + uriFilter, params, rs -> {
+                            HyperLogLog sketch = HyperLogLog.fromBytes(rs.getBytes("registers"));
+                            result.merge(new AppUri(rs.getInt("app_id"), rs.getInt("uri_id")), sketch,
+                                    HyperLogLog::merge);
+                        });
+            }
+        }
+
+        Map<Integer, String> apps = hitDictionaryRepository.findAppNames(result.keySet().stream()
+                .map(AppUri::appId)
+                .toList());
+        Map<Integer, String> uris = hitDictionaryRepository.findUris(result.keySet().stream()
+                .map(AppUri::uriId)
+                .toList());
+
+        return result.entrySet().stream()
+                .map(entry -> StatsDto.builder()
+                        .app(apps.get(entry.getKey().appId()))
+                        .uri(uris.get(entry.getKey().uriId()))
+                        .hits(entry.getValue().estimate())
+                        .build())
+                .sorted(Comparator.comparing(StatsDto::getHits).reversed())
+                .toList();
+    }
+
+    public boolean isEmpty() {
+        return Boolean.FALSE.equals(jdbcTemplate.getJdbcOperations()
+                .queryForObject("SELECT EXISTS (SELECT 1 FROM hit_sketches)", Boolean.class));
+    }
+
+    // Скетчи копятся в памяти до конца суток или до maxKeys ключей; частичный сброс безопасен, потому что
+    // save объединяет скетч с уже сохранённым.
+    public void rebuildFromHits(int fetchSize, int maxKeys) {
+        LocalDateTime hourCutoff = hourCutoff();
+        Map<SketchKey, HyperLogLog> sketches = new TreeMap<>(SketchKey.ORDER);
+        LocalDateTime[] currentDay = new LocalDateTime[1];
+
+        jdbcTemplate.getJdbcOperations().query(con -> {
+            var statement = con.prepareStatement(
+                    "SELECT app_id, uri_id, ip, timestamp FROM hits ORDER BY timestamp");
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            LocalDateTime timestamp = rs.getTimestamp("timestamp").toLocalDateTime();
+            LocalDateTime day = RollupGranularity.DAY.floor(timestamp);
+            if (currentDay[0] != null && !currentDay[0].isEqual(day) || sketches.size() >= maxKeys) {
+                save(sketches);
+                sketches.clear();
+            }
+            currentDay[0] = day;
+            addHit(sketches, hourCutoff, timestamp, rs.getInt("app_id"), rs.getInt("uri_id"),
+                    toAddress(rs.getString("ip")));
+        });
+        save(sketches);
+    }
+
+    private void addHit(Map<SketchKey, HyperLogLog> sketches, LocalDateTime hourCutoff, LocalDateTime timestamp,
+                        int appId, int uriId, byte[] address) {
+        for (RollupGranularity granularity : GRANULARITIES) {
+            LocalDateTime bucketStart = granularity.floor(timestamp);
+            if (isPrunedHour(granularity, bucketStart, hourCutoff)) {
+                continue;
+            }
+            sketches.computeIfAbsent(new SketchKey(granularity, bucketStart, appId, uriId), k -> new HyperLogLog())
+                    .add(address);
+        }
+    }
+
+    private boolean isPrunedHour(RollupGranularity granularity, LocalDateTime bucketStart, LocalDateTime hourCutoff) {
+        return granularity == RollupGranularity.HOUR && hourCutoff != null && bucketStart.isBefore(hourCutoff);
+    }
+
+    private void saveChunk(List<SketchKey> keys, Map<SketchKey, HyperLogLog> sketches) {
+        JdbcOperations jdbc = jdbcTemplate.getJdbcOperations();
+        jdbc.update(con -> {
+            var statement = con.prepareStatement(INSERT_EMPTY_SKETCHES);
+            statement.setBytes(1, new HyperLogLog().toBytes());
+            setKeys(con, statement, 2, keys);
+            return statement;
+        });
+
+        jdbc.query(con -> {
+            var statement = con.prepareStatement(LOCK_SKETCHES);
+            setKeys(con, statement, 1, keys);
+            return statement;
+        }, rs -> {
+            SketchKey key = new SketchKey(RollupGranularity.valueOf(rs.getString("granularity")),
+                    rs.getTimestamp("bucket_start").toLocalDateTime(), rs.getInt("app_id"), rs.getInt("uri_id"));
+            sketches.get(key).merge(HyperLogLog.fromBytes(rs.getBytes("registers")));
+        });
+
+        jdbc.update(con -> {
+            var statement = con.prepareStatement(UPDATE_SKETCHES);
+            setKeys(con, statement, 1, keys);
+            statement.setArray(5, con.createArrayOf("bytea",
+                    keys.stream().map(key -> sketches.get(key).toBytes()).toArray(byte[][]::new)));
+            return statement;
+        });
+    }
+
+    private void setKeys(Connection con, PreparedStatement statement, int first, List<SketchKey> keys)
+            throws SQLException {
+        statement.setArray(first, con.createArrayOf("varchar",
+                keys.stream().map(key -> key.granularity().name()).toArray()));
+        statement.setArray(first + 1, con.createArrayOf("timestamp",
+                keys.stream().map(key -> Timestamp.valueOf(key.bucketStart())).toArray()));
+        statement.setArray(first + 2, con.createArrayOf("integer",
+                keys.stream().map(SketchKey::appId).toArray()));
+        statement.setArray(first + 3, con.createArrayOf("integer",
+                keys.stream().map(SketchKey::uriId).toArray()));
+    }
+
+    private byte[] toAddress(String ip) {
+        return HitMapper.toInetAddress(ip).getAddress();
+    }
+
+    public record SketchKey(RollupGranularity granularity, LocalDateTime bucketStart, int appId, int uriId) {
+
+        public static final Comparator<SketchKey> ORDER = Comparator
+                .comparing((SketchKey key) -> key.granularity().name())
+                .thenComparing(SketchKey::bucketStart)
+                .thenComparingInt(SketchKey::appId)
+                .thenComparingInt(SketchKey::uriId);
+    }
+
+    private record AppUri(int appId, int uriId) {
+    }
+}
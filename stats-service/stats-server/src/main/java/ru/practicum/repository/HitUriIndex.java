@@ -0,0 +1,103 @@
+package ru.practicum.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Все известные uri в отсортированном виде: шаблон с * сводится к обходу диапазона ключей с общим префиксом.
+// Словарь uri только пополняется, поэтому индекс тоже только дописывается. Новые uri этого экземпляра попадают
+// в него после коммита, чужие - дозагрузкой по id перед поиском, а периодическая полная перезагрузка
+// подбирает uri, закоммиченные не в порядке выдачи id.
+@Repository
+@DependsOn("hitSchemaMigration")
+@Slf4j
+public class HitUriIndex {
+
+    public static final String WILDCARD = "*";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+    private final ConcurrentSkipListMap<String, Integer> uris = new ConcurrentSkipListMap<>();
+
+    private volatile int maxId;
+
+    public HitUriIndex(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${stats.uri-index.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    public static boolean isPattern(String uri) {
+        return uri.contains(WILDCARD);
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${stats.uri-index.reload-interval-ms:600000}",
+            fixedDelayString = "${stats.uri-index.reload-interval-ms:600000}")
+    public void reload() {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement("SELECT id, uri FROM hit_uris");
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            put(rs.getString("uri"), rs.getInt("id"));
+        }));
+        log.debug("Индекс uri перезагружен: {} значений", uris.size());
+    }
+
+    public void addAll(Map<String, Integer> values) {
+        values.forEach(this::put);
+    }
+
+    // * совпадает с любой последовательностью символов, в том числе со слешами.
+    public List<Integer> find(String pattern) {
+        refresh();
+        int wildcard = pattern.indexOf(WILDCARD);
+        String prefix = pattern.substring(0, wildcard);
+        Pattern matcher = wildcard == pattern.length() - 1 ? null : compile(pattern);
+
+        List<Integer> ids = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : uris.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            if (matcher == null || matcher.matcher(entry.getKey()).matches()) {
+                ids.add(entry.getValue());
+            }
+        }
+        return ids;
+    }
+
+    private synchronized void refresh() {
+        jdbcTemplate.query("SELECT id, uri FROM hit_uris WHERE id > ? ORDER BY id", rs -> {
+            put(rs.getString("uri"), rs.getInt("id"));
+        }, maxId);
+    }
+
+    private synchronized void put(String uri, int id) {
+        uris.put(uri, id);
+        maxId = Math.max(maxId, id);
+    }
+
+    private Pattern compile(String pattern) {
+        return Pattern.compile(Arrays.stream(pattern.split(Pattern.quote(WILDCARD), -1))
+                .map(Pattern::quote)
+                .collect(Collectors.joining(".*")));
+    }
+}
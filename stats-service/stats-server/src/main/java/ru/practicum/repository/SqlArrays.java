@@ -0,0 +1,26 @@
+package ru.practicum.repository;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+@UtilityClass
+public class SqlArrays {
+
+    // Литерал массива Postgres для uri_id = ANY(CAST(:ids AS integer[])). В отличие от IN (:ids), который
+    // разворачивается в параметр на каждый id, это один параметр: шаблон uri может совпасть с сотнями тысяч
+    // значений, а протокол Postgres ограничивает запрос 32767 параметрами.
+    public String toIntegerArray(Collection<Integer> ids) {
+        return ids.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    public String toBigintArray(long[] ids) {
+        return Arrays.stream(ids)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+}
@@ -3,49 +3,30 @@ package ru.practicum.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import ru.practicum.dto.StatsDto;
 import ru.practicum.model.Hit;
+import ru.practicum.model.HitCount;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
-public interface StatsRepository extends JpaRepository<Hit, Long> {
+public interface StatsRepository extends JpaRepository<Hit, Long>, HitBatchRepository {
 
     @Query("""
-        select new ru.practicum.dto.StatsDto(
-            h.app,
-            h.uri,
-            count(h.id)
-        )
-        from Hit h
-        where h.timestamp between :start and :end
-        and (:urisEmpty = true or h.uri in :uris)
-        group by h.app, h.uri
-        order by count(h.id) desc
-        """)
-    List<StatsDto> findStats(
-            @Param("start") LocalDateTime start,
-            @Param("end") LocalDateTime end,
-            @Param("uris") List<String> uris,
-            @Param("urisEmpty") boolean urisEmpty
-    );
-
-    @Query("""
-        select new ru.practicum.dto.StatsDto(
-            h.app,
-            h.uri,
+        select new ru.practicum.model.HitCount(
+            h.appId,
+            h.uriId,
             count(distinct h.ip)
         )
         from Hit h
         where h.timestamp between :start and :end
-        and (:urisEmpty = true or h.uri in :uris)
-        group by h.app, h.uri
+        and (:urisEmpty = true or h.uriId in :uriIds)
+        group by h.appId, h.uriId
         order by count(distinct h.ip) desc
         """)
-    List<StatsDto> findUniqueStats(
+    List<HitCount> findUniqueStats(
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end,
-            @Param("uris") List<String> uris,
+            @Param("uriIds") List<Integer> uriIds,
             @Param("urisEmpty") boolean urisEmpty
     );
 }
@@ -0,0 +1,38 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.repository.HitChangeRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HitChangeRetention {
+
+    private final HitChangeRepository hitChangeRepository;
+
+    @Value("${stats.changes.retention:7d}")
+    private Duration retention;
+
+    @Value("${stats.changes.visitor-retention:365d}")
+    private Duration visitorRetention;
+
+    @Scheduled(cron = "${stats.changes.cron:0 30 3 * * *}")
+    @Transactional
+    public void prune() {
+        int removed = hitChangeRepository.prune(LocalDateTime.now().minus(retention));
+        log.info("Удалено {} устаревших записей ленты изменений", removed);
+        if (!visitorRetention.isZero() && !visitorRetention.isNegative()) {
+            int visitors = hitChangeRepository.pruneVisitors(LocalDate.now().minusDays(visitorRetention.toDays()));
+            log.info("Удалено {} посетителей, не появлявшихся дольше {}", visitors, visitorRetention);
+        }
+    }
+}
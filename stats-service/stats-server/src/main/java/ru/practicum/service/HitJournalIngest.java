@@ -0,0 +1,154 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import ru.practicum.dto.HitDto;
+import ru.practicum.exception.ValidationException;
+import ru.practicum.journal.HitJournal;
+import ru.practicum.mapper.HitMapper;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@ConditionalOnProperty(name = "stats.ingest.mode", havingValue = "JOURNAL")
+@Slf4j
+public class HitJournalIngest {
+
+    private final HitWriter hitWriter;
+    private final HitJournal journal;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final boolean sync;
+    private final Thread flusher;
+
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public HitJournalIngest(HitWriter hitWriter,
+                            @Value("${stats.ingest.journal.directory:stats-ingest-journal}") String directory,
+                            @Value("${stats.ingest.journal.segment-size:16777216}") int segmentSize,
+                            @Value("${stats.ingest.journal.batch-size:5000}") int batchSize,
+                            @Value("${stats.ingest.journal.flush-interval-ms:200}") long flushIntervalMs,
+                            @Value("${stats.ingest.journal.sync:false}") boolean sync,
+                            @Value("${stats.ingest.journal.force-interval-ms:1000}") long forceIntervalMs) {
+        this.hitWriter = hitWriter;
+        this.journal = new HitJournal(Path.of(directory), segmentSize, forceIntervalMs);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.sync = sync;
+        this.flusher = new Thread(this::run, "stats-ingest-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    // Перенос в базу начинается только после миграций схемы и загрузки колоночного хранилища.
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        flusher.start();
+    }
+
+    // IP и размер записи проверяются до записи в журнал: некорректный просмотр должен получить 400,
+    // а не застрять в журнале.
+    public void append(List<HitDto> hitDtos) {
+        hitDtos.forEach(hitDto -> HitMapper.toInetAddress(hitDto.getIp()));
+        try {
+            journal.appendAll(hitDtos);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+        if (sync) {
+            journal.force();
+        }
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public boolean hasPending() {
+        return journal.hasPending();
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        flusher.interrupt();
+        try {
+            if (flusher.isAlive()) {
+                flusher.join(flushIntervalMs * 10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    private void run() {
+        while (running) {
+            int flushed = journal.replay(batchSize, this::flush);
+            if (flushed > 0) {
+                flushedCount.addAndGet(flushed);
+                continue;
+            }
+            // 0 - журнал дочитан, -1 - база недоступна: ждём новых записей, а не опрашиваем журнал в цикле.
+            journal.forceIfDue();
+            try {
+                Thread.sleep(flushIntervalMs);
+            } catch (InterruptedException e) {
+                log.debug("Перенос просмотров из журнала в базу остановлен");
+            }
+        }
+    }
+
+    private boolean flush(List<HitDto> batch) {
+        try {
+            hitWriter.write(batch);
+            return true;
+        } catch (RuntimeException e) {
+            if (isRetryable(e)) {
+                log.warn("База недоступна, {} просмотров останутся в журнале: {}", batch.size(), e.getMessage());
+                return false;
+            }
+            log.error("Не удалось записать пакет из {} просмотров, запись по одному: {}", batch.size(), e.getMessage());
+            return flushOneByOne(batch);
+        }
+    }
+
+    private boolean flushOneByOne(List<HitDto> batch) {
+        for (HitDto hitDto : batch) {
+            try {
+                hitWriter.write(List.of(hitDto));
+            } catch (RuntimeException e) {
+                if (isRetryable(e)) {
+                    return false;
+                }
+                rejectedCount.incrementAndGet();
+                log.error("Просмотр {} отброшен: {}", hitDto, e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private boolean isRetryable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.repository.HitPartitionRepository;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static ru.practicum.repository.HitPartitionRepository.LEGACY_PREFIX;
+import static ru.practicum.repository.HitPartitionRepository.MONTH_FORMAT;
+import static ru.practicum.repository.HitPartitionRepository.MONTH_PREFIX;
+
+@Component
+@DependsOn("hitSchemaMigration")
+@RequiredArgsConstructor
+@Slf4j
+public class HitPartitionManager {
+
+    private final HitPartitionRepository hitPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${stats.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${stats.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${stats.partitions.retention-action:DETACH}")
+    private RetentionAction retentionAction;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!hitPartitionRepository.isPartitioned()) {
+                YearMonth legacyUntil = hitPartitionRepository.findMaxTimestamp()
+                        .map(max -> YearMonth.from(max).plusMonths(1))
+                        .orElse(YearMonth.now());
+                log.info("Перевод таблицы hits на помесячные партиции, старые данные до {}", legacyUntil);
+                hitPartitionRepository.convertToPartitioned(legacyUntil);
+            }
+            hitPartitionRepository.createDefaultPartitionAndIndexes();
+        });
+        maintain();
+    }
+
+    // Каждый месяц и каждая устаревшая партиция обрабатываются в своей транзакции: ошибка на одной из них
+    // откатывает только её и не мешает остальным.
+    @Scheduled(cron = "${stats.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        List<String> partitions = hitPartitionRepository.findPartitionNames();
+        createFuturePartitions(partitions);
+        applyRetention(partitions);
+    }
+
+    private void createFuturePartitions(List<String> partitions) {
+        YearMonth from = partitions.stream()
+                .filter(name -> name.startsWith(LEGACY_PREFIX))
+                .map(name -> parseMonth(name, LEGACY_PREFIX))
+                .max(YearMonth::compareTo)
+                .filter(legacyUntil -> legacyUntil.isAfter(YearMonth.now()))
+                .orElse(YearMonth.now());
+        YearMonth to = YearMonth.now().plusMonths(monthsAhead);
+
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (!partitions.contains(MONTH_PREFIX + month.format(MONTH_FORMAT))) {
+                createMonthPartition(month);
+            }
+        }
+    }
+
+    private void createMonthPartition(YearMonth month) {
+        log.info("Создание партиции hits за {}", month);
+        try {
+            Integer moved = transactionTemplate.execute(status -> hitPartitionRepository.createMonthPartition(month));
+            if (moved != null && moved > 0) {
+                log.info("В партицию hits за {} перенесено {} просмотров из hits_default", month, moved);
+            }
+        } catch (DataAccessException e) {
+            log.error("Не удалось создать партицию hits за {}: {}", month, e.getMessage());
+        }
+    }
+
+    private void applyRetention(List<String> partitions) {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        for (String partition : partitions) {
+            Optional<YearMonth> upperBound = upperBound(partition);
+            if (upperBound.isPresent() && !upperBound.get().isAfter(cutoff)) {
+                removePartition(partition);
+            }
+        }
+    }
+
+    private void removePartition(String partition) {
+        log.info("Удаление устаревшей партиции {} ({})", partition, retentionAction);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (retentionAction == RetentionAction.DROP) {
+                    hitPartitionRepository.dropPartition(partition);
+                } else {
+                    hitPartitionRepository.detachPartition(partition);
+                }
+            });
+        } catch (DataAccessException e) {
+            log.error("Не удалось удалить партицию {}: {}", partition, e.getMessage());
+        }
+    }
+
+    private Optional<YearMonth> upperBound(String partition) {
+        if (partition.startsWith(MONTH_PREFIX)) {
+            return Optional.of(parseMonth(partition, MONTH_PREFIX).plusMonths(1));
+        }
+        if (partition.startsWith(LEGACY_PREFIX)) {
+            return Optional.of(parseMonth(partition, LEGACY_PREFIX));
+        }
+        return Optional.empty();
+    }
+
+    private YearMonth parseMonth(String partition, String prefix) {
+        return YearMonth.parse(partition.substring(prefix.length()), MONTH_FORMAT);
+    }
+
+    public enum RetentionAction {
+        DROP, DETACH
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.repository.HitChangeRepository;
+import ru.practicum.repository.HitRollupRepository;
+import ru.practicum.repository.HitSchemaRepository;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HitSchemaMigration {
+
+    private final HitSchemaRepository hitSchemaRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitChangeRepository hitChangeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (hitSchemaRepository.hasColumn("hits", "app")) {
+                log.info("Перевод таблицы hits на словари app/uri и тип inet");
+                hitSchemaRepository.migrateHits();
+            }
+            if (hitSchemaRepository.hasColumn("hit_rollups", "app")) {
+                log.info("Перевод таблицы hit_rollups на словари app/uri");
+                hitSchemaRepository.migrateRollups();
+            }
+            if (hitSchemaRepository.hasColumn("hit_sketches", "app")) {
+                log.info("Пересоздание таблицы hit_sketches, скетчи будут построены заново");
+                hitSchemaRepository.recreateSketches();
+            }
+            hitSchemaRepository.backfillEventIds();
+            hitRollupRepository.backfillFromHits();
+            int visitors = hitChangeRepository.backfillVisitors();
+            if (visitors > 0) {
+                log.info("Посетители для ленты изменений засеяны из hits: {}", visitors);
+            }
+        });
+    }
+}
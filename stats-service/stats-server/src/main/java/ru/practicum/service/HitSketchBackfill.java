@@ -0,0 +1,38 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.repository.HitSketchRepository;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HitSketchBackfill implements ApplicationRunner {
+
+    private final HitSketchRepository hitSketchRepository;
+
+    @Value("${stats.sketches.backfill-on-startup:true}")
+    private boolean enabled;
+
+    @Value("${stats.sketches.backfill-fetch-size:10000}")
+    private int fetchSize;
+
+    @Value("${stats.sketches.backfill-max-keys:10000}")
+    private int maxKeys;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        if (!enabled || !hitSketchRepository.isEmpty()) {
+            return;
+        }
+        log.info("Построение HyperLogLog-скетчей по существующим просмотрам");
+        hitSketchRepository.rebuildFromHits(fetchSize, maxKeys);
+        log.info("Построение HyperLogLog-скетчей завершено");
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.repository.HitSketchRepository;
+
+import java.time.LocalDateTime;
+
+// Часовые скетчи нужны только для краёв недавних диапазонов; старые часы удаляются, суточные хранятся всегда.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HitSketchRetention {
+
+    private final HitSketchRepository hitSketchRepository;
+
+    @Scheduled(cron = "${stats.sketches.cron:0 45 3 * * *}")
+    @Transactional
+    public void prune() {
+        LocalDateTime cutoff = hitSketchRepository.hourCutoff();
+        if (cutoff == null) {
+            return;
+        }
+        int removed = hitSketchRepository.pruneHours(cutoff);
+        log.info("Удалено {} часовых HyperLogLog-скетчей старше {}", removed, cutoff);
+    }
+}
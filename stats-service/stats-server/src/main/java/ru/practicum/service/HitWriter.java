@@ -0,0 +1,65 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.columnar.ColumnarHitStore;
+import ru.practicum.dto.HitDto;
+import ru.practicum.mapper.HitMapper;
+import ru.practicum.model.Hit;
+import ru.practicum.repository.HitChangeRepository;
+import ru.practicum.repository.HitDictionaryRepository;
+import ru.practicum.repository.HitRollupRepository;
+import ru.practicum.repository.HitSketchRepository;
+import ru.practicum.repository.StatsRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+@Transactional
+public class HitWriter {
+
+    private final StatsRepository statsRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitSketchRepository hitSketchRepository;
+    private final HitDictionaryRepository hitDictionaryRepository;
+    private final HitChangeRepository hitChangeRepository;
+    private final Optional<ColumnarHitStore> columnarHitStore;
+    private final Optional<StatsQueryCache> statsQueryCache;
+
+    public HitDto writeOne(HitDto hitDto) {
+        Integer appId = hitDictionaryRepository.resolveAppIds(List.of(hitDto.getApp())).get(hitDto.getApp());
+        Integer uriId = hitDictionaryRepository.resolveUriIds(List.of(hitDto.getUri())).get(hitDto.getUri());
+        Hit hit = statsRepository.save(HitMapper.toHit(hitDto, appId, uriId));
+        aggregate(List.of(hit));
+        return HitMapper.toHitDto(hit, hitDto.getApp(), hitDto.getUri());
+    }
+
+    public void write(List<HitDto> hitDtos) {
+        if (hitDtos.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> appIds = hitDictionaryRepository.resolveAppIds(hitDtos.stream()
+                .map(HitDto::getApp)
+                .toList());
+        Map<String, Integer> uriIds = hitDictionaryRepository.resolveUriIds(hitDtos.stream()
+                .map(HitDto::getUri)
+                .toList());
+        List<Hit> hits = hitDtos.stream()
+                .map(hitDto -> HitMapper.toHit(hitDto, appIds.get(hitDto.getApp()), uriIds.get(hitDto.getUri())))
+                .toList();
+        statsRepository.saveAllBatch(hits);
+        aggregate(hits);
+    }
+
+    private void aggregate(List<Hit> hits) {
+        hitRollupRepository.increment(hits);
+        hitSketchRepository.merge(hits);
+        hitChangeRepository.record(hits);
+        columnarHitStore.ifPresent(store -> store.appendAfterCommit(hits));
+        statsQueryCache.ifPresent(cache -> cache.advanceAfterCommit(hits));
+    }
+}
@@ -0,0 +1,160 @@
+package ru.practicum.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.dto.StatsDto;
+import ru.practicum.model.Hit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Запись считается актуальной, пока после её расчёта не было вставок по её uri. Каждая закоммиченная пачка
+// просмотров получает очередной номер и поднимает до него водяные знаки своих uri (uri раскладываются по
+// фиксированному числу ячеек, коллизии дают лишь лишний промах). Записи без точного списка id - без фильтра,
+// с шаблонами или с ещё не встречавшимися uri - сверяются с последней вставкой вообще.
+// Вставки других экземпляров сервера здесь не видны, поэтому запись живёт не дольше stats.query-cache.max-age.
+// Кэш включается явно: из-за округления границ ответ захватывает до bucket за пределами запрошенного периода.
+@Component
+@ConditionalOnProperty(name = "stats.query-cache.enabled", havingValue = "true")
+public class StatsQueryCache {
+
+    private final Cache<Key, Entry> cache;
+    private final long bucketSeconds;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong lastWrite = new AtomicLong();
+    private final AtomicLongArray watermarks;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stale;
+
+    public StatsQueryCache(MeterRegistry meterRegistry,
+                           @Value("${stats.query-cache.bucket:10s}") Duration bucket,
+                           @Value("${stats.query-cache.maximum-rows:1000000}") long maximumRows,
+                           @Value("${stats.query-cache.max-age:10m}") Duration maxAge,
+                           @Value("${stats.query-cache.watermark-slots:65536}") int watermarkSlots) {
+        Counter evictions = Counter.builder("stats.query.cache.evictions").register(meterRegistry);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumRows)
+                .weigher((Key key, Entry entry) -> entry.stats().size() + 1)
+                .expireAfterWrite(maxAge)
+                .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+        this.bucketSeconds = Math.max(1, bucket.toSeconds());
+        this.watermarks = new AtomicLongArray(watermarkSlots);
+        this.hits = Counter.builder("stats.query.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("stats.query.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.stale = Counter.builder("stats.query.cache.requests").tag("result", "stale").register(meterRegistry);
+        Gauge.builder("stats.query.cache.size", cache, c -> c.estimatedSize()).register(meterRegistry);
+    }
+
+    // Начало округляется вниз, конец - вверх до границы интервала: запросы, отличающиеся секундами, сходятся
+    // к одному ключу, а результат считается по округлённым границам и ему соответствует. Уже сгруппированный
+    // по uri ответ до точных границ не обрезать, поэтому он включает и просмотры в расширенной части периода.
+    public Key key(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique, boolean approximate) {
+        return new Key(roundDown(start), roundUp(end), uris == null ? List.of() : uris.stream()
+                .distinct()
+                .sorted()
+                .toList(), unique, approximate);
+    }
+
+    // uriIds - точный список id запроса или null, если запрос зависит от появления новых uri.
+    public List<StatsDto> get(Key key, List<Integer> uriIds, Supplier<List<StatsDto>> loader) {
+        Entry entry = cache.asMap().get(key);
+        if (entry != null && isUnchangedSince(entry)) {
+            hits.increment();
+            return entry.stats();
+        }
+        (entry == null ? misses : stale).increment();
+
+        long version = sequence.get();
+        List<StatsDto> stats = List.copyOf(loader.get());
+        cache.put(key, new Entry(version, uriIds == null ? null : toSlots(uriIds), stats));
+        return stats;
+    }
+
+    public void advanceAfterCommit(List<Hit> hits) {
+        List<Integer> uriIds = hits.stream()
+                .map(Hit::getUriId)
+                .distinct()
+                .toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance(uriIds);
+                }
+            });
+        } else {
+            advance(uriIds);
+        }
+    }
+
+    // Номер берётся до обновления ячеек: запрос, прочитавший его раньше, увидит уже закоммиченные данные,
+    // поэтому его запись с тем же номером остаётся корректной.
+    private void advance(Collection<Integer> uriIds) {
+        long version = sequence.incrementAndGet();
+        for (Integer uriId : uriIds) {
+            watermarks.accumulateAndGet(slot(uriId), version, Math::max);
+        }
+        lastWrite.accumulateAndGet(version, Math::max);
+    }
+
+    private boolean isUnchangedSince(Entry entry) {
+        if (entry.slots() == null) {
+            return lastWrite.get() <= entry.version();
+        }
+        for (int slot : entry.slots()) {
+            if (watermarks.get(slot) > entry.version()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] toSlots(List<Integer> uriIds) {
+        return uriIds.stream()
+                .mapToInt(this::slot)
+                .distinct()
+                .toArray();
+    }
+
+    private int slot(int uriId) {
+        return Math.floorMod(uriId * 0x9E3779B9, watermarks.length());
+    }
+
+    private LocalDateTime roundDown(LocalDateTime dateTime) {
+        long seconds = dateTime.toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(seconds, bucketSeconds) * bucketSeconds, 0, ZoneOffset.UTC);
+    }
+
+    private LocalDateTime roundUp(LocalDateTime dateTime) {
+        LocalDateTime down = roundDown(dateTime);
+        return down.equals(dateTime) ? down : down.plusSeconds(bucketSeconds);
+    }
+
+    public record Key(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                      boolean approximate) {
+    }
+
+    private record Entry(long version, int[] slots, List<StatsDto> stats) {
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.service;
+
+import ru.practicum.model.RollupGranularity;
+
+import java.time.LocalDateTime;
+
+public record StatsRange(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+
+    public boolean isRaw() {
+        return granularity == null;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.service;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.model.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@UtilityClass
+public class StatsRangePlanner {
+
+    public List<StatsRange> plan(LocalDateTime from, LocalDateTime to) {
+        return plan(from, to, List.of(RollupGranularity.values()));
+    }
+
+    public List<StatsRange> plan(LocalDateTime from, LocalDateTime to, List<RollupGranularity> granularities) {
+        List<StatsRange> ranges = new ArrayList<>();
+        LocalDateTime lo = from;
+        LocalDateTime hi = to;
+        RollupGranularity current = null;
+
+        for (RollupGranularity next : granularities) {
+            LocalDateTime alignedLo = next.ceil(lo);
+            LocalDateTime alignedHi = next.floor(hi);
+            if (!alignedLo.isBefore(alignedHi)) {
+                break;
+            }
+            addRange(ranges, current, lo, alignedLo);
+            addRange(ranges, current, alignedHi, hi);
+            lo = alignedLo;
+            hi = alignedHi;
+            current = next;
+        }
+        addRange(ranges, current, lo, hi);
+        return ranges;
+    }
+
+    private void addRange(List<StatsRange> ranges, RollupGranularity granularity,
+                          LocalDateTime from, LocalDateTime to) {
+        if (from.isBefore(to)) {
+            ranges.add(new StatsRange(granularity, from, to));
+        }
+    }
+}
@@ -1,15 +1,30 @@
 package ru.practicum.service;
 
 import ru.practicum.dto.HitDto;
+import ru.practicum.dto.StatsChangesDto;
 import ru.practicum.dto.StatsDto;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface StatsService {
 
     HitDto saveHit(HitDto hitDto);
 
-    Collection<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
+    void saveHits(List<HitDto> hitDtos);
+
+    Collection<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                  Boolean unique, Boolean approximate);
+
+    List<StatsDto> getTopStats(LocalDateTime start, LocalDateTime end, int limit, String uriPrefix);
+
+    Map<Long, Long> getEventStats(LocalDateTime start, LocalDateTime end, long[] eventIds, boolean unique);
+
+    StatsChangesDto getChanges(long since, int limit);
+
+    void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                     Boolean unique, Boolean approximate, Consumer<StatsDto> consumer);
 }
@@ -3,44 +3,272 @@ package ru.practicum.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.columnar.ColumnarHitStore;
 import ru.practicum.dto.HitDto;
+import ru.practicum.dto.StatsChangeDto;
+import ru.practicum.dto.StatsChangesDto;
 import ru.practicum.dto.StatsDto;
-import ru.practicum.mapper.HitMapper;
-import ru.practicum.model.Hit;
+import ru.practicum.model.HitChange;
+import ru.practicum.model.HitCount;
+import ru.practicum.repository.HitChangeRepository;
+import ru.practicum.repository.HitDictionaryRepository;
+import ru.practicum.repository.HitRollupRepository;
+import ru.practicum.repository.HitSketchRepository;
+import ru.practicum.repository.HitUriIndex;
 import ru.practicum.repository.StatsRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class StatsServiceImpl implements StatsService {
 
+    private static final int MAX_JPQL_URI_IDS = 10_000;
+
     private final StatsRepository statsRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitSketchRepository hitSketchRepository;
+    private final HitDictionaryRepository hitDictionaryRepository;
+    private final HitUriIndex hitUriIndex;
+    private final HitChangeRepository hitChangeRepository;
+    private final Optional<ColumnarHitStore> columnarHitStore;
+    private final HitWriter hitWriter;
+    private final Optional<HitJournalIngest> hitJournalIngest;
+    private final Optional<StatsQueryCache> statsQueryCache;
 
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Override
     public HitDto saveHit(HitDto hitDto) {
-        Hit hit = HitMapper.toHit(hitDto);
-        return HitMapper.toHitDto(statsRepository.save(hit));
+        if (hitJournalIngest.isPresent()) {
+            hitJournalIngest.get().append(List.of(hitDto));
+            return hitDto;
+        }
+        return hitWriter.writeOne(hitDto);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Override
-    public Collection<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
-        if (start.isAfter(end)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Начало должно быть перед временем окончания.");
+    public void saveHits(List<HitDto> hitDtos) {
+        if (hitJournalIngest.isPresent()) {
+            hitJournalIngest.get().append(hitDtos);
+        } else {
+            hitWriter.write(hitDtos);
+        }
+    }
+
+    @Override
+    public Collection<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                         Boolean unique, Boolean approximate) {
+        validateRange(start, end);
+        if (statsQueryCache.isEmpty()) {
+            return findStats(start, end, findUriIds(uris), unique, approximate);
+        }
+
+        StatsQueryCache.Key key = statsQueryCache.get().key(start, end, uris, unique, approximate);
+        List<Integer> uriIds = findUriIds(key.uris());
+        return statsQueryCache.get().get(key, isExact(key.uris(), uriIds) ? uriIds : null,
+                () -> findStats(key.start(), key.end(), uriIds, unique, approximate));
+    }
+
+    @Override
+    public List<StatsDto> getTopStats(LocalDateTime start, LocalDateTime end, int limit, String uriPrefix) {
+        validateRange(start, end);
+        List<StatsRange> ranges = StatsRangePlanner.plan(start, toExclusive(end));
+        return hitRollupRepository.findTopStats(ranges, uriPrefix, limit);
+    }
+
+    // Просмотры событий по числовым id: uri вида /events/{id} сопоставлены id ещё при записи в словарь,
+    // поэтому ни строки uri, ни их разбор здесь не нужны.
+    @Override
+    public Map<Long, Long> getEventStats(LocalDateTime start, LocalDateTime end, long[] eventIds, boolean unique) {
+        validateRange(start, end);
+        Map<Long, Long> views = new HashMap<>();
+        for (long eventId : eventIds) {
+            views.put(eventId, 0L);
+        }
+        Map<Integer, Long> events = hitDictionaryRepository.findUriIdsByEventIds(eventIds);
+        if (events.isEmpty()) {
+            return views;
+        }
+
+        List<Integer> uriIds = List.copyOf(events.keySet());
+        List<HitCount> counts;
+        if (columnarHitStore.isPresent() && columnarHitStore.get().covers(start)) {
+            counts = columnarHitStore.get().findStats(start, toExclusive(end), uriIds, unique);
+        } else if (unique) {
+            counts = findUniqueStats(start, end, uriIds);
+        } else {
+            counts = hitRollupRepository.findCounts(StatsRangePlanner.plan(start, toExclusive(end)), uriIds);
         }
+        counts.forEach(count -> views.merge(events.get(count.uriId()), count.hits(), Long::sum));
+        return views;
+    }
 
-        boolean isUrisEmpty = (uris == null || uris.isEmpty());
+    // since=0 - потребитель ещё ничего не читал: его счётчики могли появиться раньше ленты или не учитывать
+    // уже удалённую её часть, поэтому при непустой ленте он получает reset и пересчитывает их целиком.
+    @Override
+    public StatsChangesDto getChanges(long since, int limit) {
+        Optional<Long> oldest = hitChangeRepository.findOldestId();
+        if (oldest.isPresent() && (since == 0 || since < oldest.get() - 1)) {
+            return StatsChangesDto.builder()
+                    .cursor(hitChangeRepository.findLatestId())
+                    .reset(true)
+                    .changes(List.of())
+                    .build();
+        }
 
-        List<String> safeUris = isUrisEmpty ? List.of("") : uris;
+        List<HitChange> changes = hitChangeRepository.findChanges(since, limit);
+        Map<Integer, String> apps = hitDictionaryRepository.findAppNames(changes.stream()
+                .map(HitChange::appId)
+                .toList());
+        Map<Integer, String> uris = hitDictionaryRepository.findUris(changes.stream()
+                .map(HitChange::uriId)
+                .toList());
+        return StatsChangesDto.builder()
+                .cursor(changes.stream()
+                        .mapToLong(HitChange::lastId)
+                        .max()
+                        .orElse(since))
+                .reset(false)
+                .changes(changes.stream()
+                        .map(change -> StatsChangeDto.builder()
+                                .app(apps.get(change.appId()))
+                                .uri(uris.get(change.uriId()))
+                                .hits(change.hits())
+                                .newUnique(change.newUnique())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    @Override
+    public void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                            Boolean unique, Boolean approximate, Consumer<StatsDto> consumer) {
+        validateRange(start, end);
+
+        List<Integer> uriIds = findUriIds(uris);
+        if (uriIds != null && uriIds.isEmpty()) {
+            return;
+        }
+
+        if (unique && approximate) {
+            findApproximateUniqueStats(start, end, uriIds).forEach(consumer);
+        } else if (unique) {
+            hitRollupRepository.streamUniqueStats(start, toExclusive(end), uriIds, consumer);
+        } else {
+            List<StatsRange> ranges = StatsRangePlanner.plan(start, toExclusive(end));
+            hitRollupRepository.streamStats(ranges, uriIds, consumer);
+        }
+    }
 
+    private List<StatsDto> findStats(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                     boolean unique, boolean approximate) {
+        if (uriIds != null && uriIds.isEmpty()) {
+            return List.of();
+        }
+
+        if (columnarHitStore.isPresent() && columnarHitStore.get().covers(start)) {
+            return toStatsDtos(columnarHitStore.get().findStats(start, toExclusive(end), uriIds, unique));
+        }
+        if (unique && approximate) {
+            return findApproximateUniqueStats(start, end, uriIds);
+        }
         if (unique) {
-            return statsRepository.findUniqueStats(start, end, safeUris, isUrisEmpty);
-        } else return statsRepository.findStats(start, end, safeUris, isUrisEmpty);
+            return toStatsDtos(findUniqueStats(start, end, uriIds));
+        }
+        List<StatsRange> ranges = StatsRangePlanner.plan(start, toExclusive(end));
+        return hitRollupRepository.findStats(ranges, uriIds);
+    }
+
+    private List<StatsDto> findApproximateUniqueStats(LocalDateTime start, LocalDateTime end, List<Integer> uriIds) {
+        List<StatsRange> ranges = StatsRangePlanner.plan(start, toExclusive(end), HitSketchRepository.GRANULARITIES);
+        return hitSketchRepository.findUniqueStats(ranges, uriIds);
+    }
+
+    // JPQL разворачивает IN в параметр на каждый id, поэтому большой список считается частями. Группировка идёт
+    // по (app, uri), так что части не пересекаются и их результаты достаточно объединить и отсортировать.
+    private List<HitCount> findUniqueStats(LocalDateTime start, LocalDateTime end, List<Integer> uriIds) {
+        if (uriIds == null || uriIds.size() <= MAX_JPQL_URI_IDS) {
+            return statsRepository.findUniqueStats(start, end, safeUriIds(uriIds), uriIds == null);
+        }
+        List<HitCount> counts = new ArrayList<>();
+        for (int from = 0; from < uriIds.size(); from += MAX_JPQL_URI_IDS) {
+            counts.addAll(statsRepository.findUniqueStats(start, end,
+                    uriIds.subList(from, Math.min(from + MAX_JPQL_URI_IDS, uriIds.size())), false));
+        }
+        counts.sort(Comparator.comparing(HitCount::hits).reversed());
+        return counts;
+    }
+
+    // null означает отсутствие фильтра, пустой список - что ни один из запрошенных uri ещё не встречался.
+    // Значения с * - шаблоны, они раскрываются по индексу известных uri.
+    private List<Integer> findUriIds(List<String> uris) {
+        if (uris == null || uris.isEmpty() || uris.contains(HitUriIndex.WILDCARD)) {
+            return null;
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        List<String> exact = new ArrayList<>();
+        for (String uri : uris) {
+            if (HitUriIndex.isPattern(uri)) {
+                ids.addAll(hitUriIndex.find(uri));
+            } else {
+                exact.add(uri);
+            }
+        }
+        if (!exact.isEmpty()) {
+            ids.addAll(hitDictionaryRepository.findUriIds(exact).values());
+        }
+        return List.copyOf(ids);
+    }
+
+    // Без шаблонов и неизвестных uri результат зависит только от вставок по этим id.
+    private boolean isExact(List<String> uris, List<Integer> uriIds) {
+        return uriIds != null && uriIds.size() == uris.size() && uris.stream().noneMatch(HitUriIndex::isPattern);
+    }
+
+    private List<Integer> safeUriIds(List<Integer> uriIds) {
+        return uriIds == null ? List.of(0) : uriIds;
+    }
+
+    private List<StatsDto> toStatsDtos(List<HitCount> counts) {
+        Map<Integer, String> apps = hitDictionaryRepository.findAppNames(counts.stream()
+                .map(HitCount::appId)
+                .toList());
+        Map<Integer, String> uris = hitDictionaryRepository.findUris(counts.stream()
+                .map(HitCount::uriId)
+                .toList());
+        return counts.stream()
+                .map(count -> StatsDto.builder()
+                        .app(apps.get(count.appId()))
+                        .uri(uris.get(count.uriId()))
+                        .hits(count.hits())
+                        .build())
+                .toList();
+    }
+
+    private void validateRange(LocalDateTime start, LocalDateTime end) {
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Начало должно быть перед временем окончания.");
+        }
+    }
+
+    // Границы запроса включительные, а timestamp в Postgres хранится с точностью до микросекунд.
+    private LocalDateTime toExclusive(LocalDateTime end) {
+        return end.plus(1, ChronoUnit.MICROS);
     }
 }
@@ -0,0 +1,119 @@
+package ru.practicum.sketch;
+
+import java.util.Arrays;
+
+public class HyperLogLog {
+
+    public static final int PRECISION = 12;
+    public static final int REGISTERS = 1 << PRECISION;
+
+    // Разреженная запись регистра: номер (2 байта) и значение (1 байт). REGISTERS не делится на 3,
+    // поэтому по длине массива плотную запись от разреженной отличить однозначно.
+    private static final int SPARSE_ENTRY = 3;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(new byte[REGISTERS]);
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length == REGISTERS) {
+            return new HyperLogLog(Arrays.copyOf(bytes, REGISTERS));
+        }
+        if (bytes.length % SPARSE_ENTRY != 0) {
+            throw new IllegalArgumentException("Некорректный размер HyperLogLog: " + bytes.length);
+        }
+        byte[] registers = new byte[REGISTERS];
+        for (int i = 0; i < bytes.length; i += SPARSE_ENTRY) {
+            int index = (bytes[i] & 0xff) << 8 | bytes[i + 1] & 0xff;
+            if (index >= REGISTERS) {
+                throw new IllegalArgumentException("Некорректный номер регистра HyperLogLog: " + index);
+            }
+            registers[index] = bytes[i + 2];
+        }
+        return new HyperLogLog(registers);
+    }
+
+    // Скетч часа по одному uri обычно заполнен на малую долю регистров: такой пишется разреженно
+    // и занимает байты вместо 4 КиБ. Плотная запись выбирается, когда она короче.
+    public byte[] toBytes() {
+        int filled = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                filled++;
+            }
+        }
+        if (filled * SPARSE_ENTRY >= REGISTERS) {
+            return Arrays.copyOf(registers, REGISTERS);
+        }
+        byte[] bytes = new byte[filled * SPARSE_ENTRY];
+        int position = 0;
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] != 0) {
+                bytes[position++] = (byte) (i >>> 8);
+                bytes[position++] = (byte) i;
+                bytes[position++] = registers[i];
+            }
+        }
+        return bytes;
+    }
+
+    public void add(byte[] value) {
+        addHash(hash(value));
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        long rest = (hash << PRECISION) | (1L << (PRECISION - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] < other.registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,7 +1,70 @@
+CREATE TABLE IF NOT EXISTS hit_apps (
+  id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  CONSTRAINT pk_hit_apps PRIMARY KEY (id),
+  CONSTRAINT uq_hit_apps_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS hit_uris (
+  id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  event_id BIGINT,
+  CONSTRAINT pk_hit_uris PRIMARY KEY (id),
+  CONSTRAINT uq_hit_uris_uri UNIQUE (uri)
+);
+
+ALTER TABLE hit_uris ADD COLUMN IF NOT EXISTS event_id BIGINT;
+
 CREATE TABLE IF NOT EXISTS hits (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-  app VARCHAR(255) NOT NULL,
-  uri VARCHAR(255) NOT NULL,
-  ip VARCHAR(32) NOT NULL,
-  timestamp TIMESTAMP WITHOUT TIME ZONE
-);
\ No newline at end of file
+  app_id INTEGER NOT NULL,
+  uri_id INTEGER NOT NULL,
+  ip INET NOT NULL,
+  timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE IF NOT EXISTS hit_rollups (
+  granularity VARCHAR(16) NOT NULL,
+  bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  app_id INTEGER NOT NULL,
+  uri_id INTEGER NOT NULL,
+  hits BIGINT NOT NULL,
+  CONSTRAINT pk_hit_rollups PRIMARY KEY (granularity, bucket_start, app_id, uri_id)
+);
+
+CREATE TABLE IF NOT EXISTS hit_sketches (
+  granularity VARCHAR(16) NOT NULL,
+  bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  app_id INTEGER NOT NULL,
+  uri_id INTEGER NOT NULL,
+  registers BYTEA NOT NULL,
+  CONSTRAINT pk_hit_sketches PRIMARY KEY (granularity, bucket_start, app_id, uri_id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_hit_uris_uri_pattern ON hit_uris (uri varchar_pattern_ops);
+
+CREATE INDEX IF NOT EXISTS ix_hit_uris_event_id ON hit_uris (event_id) WHERE event_id IS NOT NULL;
+
+CREATE TABLE IF NOT EXISTS hit_visitors (
+  app_id INTEGER NOT NULL,
+  uri_id INTEGER NOT NULL,
+  ip INET NOT NULL,
+  last_seen DATE NOT NULL DEFAULT CURRENT_DATE,
+  CONSTRAINT pk_hit_visitors PRIMARY KEY (app_id, uri_id, ip)
+);
+
+ALTER TABLE hit_visitors ADD COLUMN IF NOT EXISTS last_seen DATE NOT NULL DEFAULT CURRENT_DATE;
+
+CREATE INDEX IF NOT EXISTS ix_hit_visitors_last_seen ON hit_visitors (last_seen);
+
+CREATE TABLE IF NOT EXISTS hit_changes (
+  id BIGINT GENERATED ALWAYS AS IDENTITY NOT NULL,
+  app_id INTEGER NOT NULL,
+  uri_id INTEGER NOT NULL,
+  hits BIGINT NOT NULL,
+  new_unique BIGINT NOT NULL,
+  created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+  CONSTRAINT pk_hit_changes PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_hit_changes_created_at ON hit_changes (created_at);
@@ -0,0 +1,106 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.model.Hit;
+import ru.practicum.repository.HitCopyLoader;
+import ru.practicum.repository.HitDictionaryRepository;
+import ru.practicum.repository.StatsRepository;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// Замер вставки одиночными INSERT, JDBC batch и COPY на настоящей базе. Под шаблоны имён surefire класс
+// не подходит и в обычный прогон тестов не входит, запуск:
+// mvn -pl stats-service/stats-server -am test -Dtest=HitLoadBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+// (база - из spring.datasource.*). Каждый способ выполняется в своей транзакции вместе с регистрацией app и uri
+// в словарях, транзакция откатывается, поэтому ни hits, ни словари не меняются.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Slf4j
+class HitLoadBenchmark {
+
+    @Autowired
+    private StatsRepository statsRepository;
+
+    @Autowired
+    private HitCopyLoader hitCopyLoader;
+
+    @Autowired
+    private HitDictionaryRepository hitDictionaryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${stats.bench.rows:200000}")
+    private int rows;
+
+    @Value("${stats.bench.single-rows:5000}")
+    private int singleRows;
+
+    @Value("${stats.bench.uris:10000}")
+    private int uris;
+
+    @Value("${stats.bench.seed:42}")
+    private long seed;
+
+    @Test
+    void measureInsertMethods() {
+        measure("single insert", Math.min(singleRows, rows),
+                batch -> batch.forEach(hit -> statsRepository.insertBatch(List.of(hit))));
+        measure("jdbc batch", rows, statsRepository::insertBatch);
+        if (hitCopyLoader.isSupported()) {
+            measure("copy", rows, hitCopyLoader::copy);
+        } else {
+            log.warn("COPY не поддерживается текущей базой, замер пропущен");
+        }
+    }
+
+    private void measure(String name, int count, Consumer<List<Hit>> loader) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Hit> hits = generate(count);
+            long started = System.nanoTime();
+            loader.accept(hits);
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            log.info("{}: {} строк за {} с, {} строк/с", name, hits.size(), "%.3f".formatted(seconds),
+                    Math.round(hits.size() / seconds));
+            status.setRollbackOnly();
+        });
+    }
+
+    private List<Hit> generate(int count) {
+        List<Integer> appIds = List.copyOf(hitDictionaryRepository.resolveAppIds(IntStream.rangeClosed(1, 3)
+                .mapToObj(i -> "bench-app-" + i)
+                .toList()).values());
+        List<Integer> uriIds = List.copyOf(hitDictionaryRepository.resolveUriIds(IntStream.rangeClosed(1, uris)
+                .mapToObj(i -> "/bench/" + i)
+                .toList()).values());
+
+        Random random = new Random(seed);
+        LocalDateTime now = LocalDateTime.now();
+        List<Hit> hits = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                hits.add(Hit.builder()
+                        .appId(appIds.get(random.nextInt(appIds.size())))
+                        .uriId(uriIds.get(random.nextInt(uriIds.size())))
+                        .ip(InetAddress.getByAddress(new byte[]{10, (byte) random.nextInt(256),
+                                (byte) random.nextInt(256), (byte) random.nextInt(256)}))
+                        .timestamp(now.minusSeconds(random.nextInt(3600)))
+                        .build());
+            }
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.repository.HitPartitionRepository.MONTH_FORMAT;
+import static ru.practicum.repository.HitPartitionRepository.MONTH_PREFIX;
+
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class HitPartitionManagerTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private HitPartitionManager hitPartitionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void maintainMovesDefaultRowsIntoNewMonthPartition() {
+        YearMonth month = YearMonth.now().plusMonths(6);
+        String partition = partitionName(month);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+        insertHit(month.atDay(5).atTime(10, 0));
+        insertHit(month.atEndOfMonth().atTime(23, 59));
+        assertThat(countIn("hits_default", month)).isEqualTo(2);
+
+        ReflectionTestUtils.setField(hitPartitionManager, "monthsAhead", 6);
+        hitPartitionManager.maintain();
+
+        assertThat(isAttached(partition)).isTrue();
+        assertThat(countIn(partition, month)).isEqualTo(2);
+        assertThat(countIn("hits_default", month)).isZero();
+    }
+
+    @Test
+    void maintainCreatesRemainingMonthsWhenOneMonthFails() {
+        YearMonth failing = YearMonth.now().plusMonths(8);
+        YearMonth next = failing.plusMonths(1);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(failing));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(next));
+        // Таблица с именем партиции уже есть, поэтому перенос строк из hits_default за этот месяц падает.
+        jdbcTemplate.execute("CREATE TABLE " + partitionName(failing) + " (id BIGINT)");
+        insertHit(failing.atDay(1).atStartOfDay());
+
+        ReflectionTestUtils.setField(hitPartitionManager, "monthsAhead", 9);
+        try {
+            hitPartitionManager.maintain();
+
+            assertThat(isAttached(partitionName(failing))).isFalse();
+            assertThat(countIn("hits_default", failing)).isEqualTo(1);
+            assertThat(isAttached(partitionName(next))).isTrue();
+        } finally {
+            jdbcTemplate.execute("DROP TABLE " + partitionName(failing));
+            jdbcTemplate.update("DELETE FROM hits_default WHERE timestamp >= ? AND timestamp < ?",
+                    Timestamp.valueOf(failing.atDay(1).atStartOfDay()),
+                    Timestamp.valueOf(next.atDay(1).atStartOfDay()));
+        }
+    }
+
+    private void insertHit(LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO hits (app_id, uri_id, ip, timestamp) VALUES (1, 1, '10.0.0.1', ?)",
+                Timestamp.valueOf(timestamp));
+    }
+
+    private int countIn(String table, YearMonth month) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table
+                        + " WHERE timestamp >= ? AND timestamp < ?", Integer.class,
+                Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+                Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+        return count == null ? 0 : count;
+    }
+
+    private boolean isAttached(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_inherits"
+                + " WHERE inhrelid = to_regclass(?) AND inhparent = to_regclass('hits'))", Boolean.class, partition));
+    }
+
+    private String partitionName(YearMonth month) {
+        return MONTH_PREFIX + month.format(MONTH_FORMAT);
+    }
+}